@@ -4,16 +4,25 @@ import Exceptions.ChargingException;
 
 
 public class AGV implements Comparable<AGV> { 
+    // Aging weights for the charging priority key (see getPriorityKey)
+    static final long URGENT_BOOST_MS = 60_000;
+    static final long BATTERY_BOOST_MS_PER_PERCENT = 200;
+
     private String id;
     private int batteryLevel;
     private boolean urgentOrder;
     private long arrivalTime;
+    private volatile long queuedAtNanos;
 
     public AGV(String id, int batteryLevel, boolean urgentOrder) {
+        this(id, batteryLevel, urgentOrder, System.currentTimeMillis());
+    }
+
+    public AGV(String id, int batteryLevel, boolean urgentOrder, long arrivalTime) {
         this.id = id;
         this.batteryLevel = batteryLevel;
         this.urgentOrder = urgentOrder;
-        this.arrivalTime = System.currentTimeMillis();
+        this.arrivalTime = arrivalTime;
     }
 
     public String getId() { return id; }
@@ -21,6 +30,9 @@ public class AGV implements Comparable<AGV> {
     public void setBatteryLevel(int b) { this.batteryLevel = b; }
     public boolean isUrgent() { return urgentOrder; }
     public long getArrivalTime() { return arrivalTime; }
+    public long getQueuedAtNanos() { return queuedAtNanos; }
+
+    void markQueued(long nanos) { this.queuedAtNanos = nanos; }
 
     // Simulate charging action
     public void charge() throws ChargingException {
@@ -38,10 +50,24 @@ public class AGV implements Comparable<AGV> {
         }
     }
 
+    /**
+     * Virtual arrival time used for charging order: urgency and a low battery
+     * move the AGV forward by a bounded amount of time. Every AGV ages at the
+     * same rate, so a non-urgent AGV that has waited longer than the boost
+     * is no longer overtaken (no starvation).
+     */
+    public long getPriorityKey() {
+        int missing = 100 - Math.max(0, Math.min(100, batteryLevel));
+        return arrivalTime
+                - (urgentOrder ? URGENT_BOOST_MS : 0)
+                - missing * BATTERY_BOOST_MS_PER_PERCENT;
+    }
+
     @Override
     public int compareTo(AGV other) {
-        if (this.urgentOrder && !other.urgentOrder) return -1;
-        if (!this.urgentOrder && other.urgentOrder) return 1;
+        int c = Long.compare(this.getPriorityKey(), other.getPriorityKey());
+        if (c != 0) return c;
+        if (this.urgentOrder != other.urgentOrder) return this.urgentOrder ? -1 : 1;
         return Long.compare(this.arrivalTime, other.arrivalTime);
     }
 }
@@ -0,0 +1,24 @@
+package ChargingStation;
+
+/**
+ * Time source for the charging subsystem. Production code uses SYSTEM;
+ * simulations inject a VirtualClock so no real time passes.
+ */
+public interface ChargingClock {
+
+    long currentTimeMillis();
+
+    void sleep(long millis) throws InterruptedException;
+
+    ChargingClock SYSTEM = new ChargingClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public void sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+    };
+}
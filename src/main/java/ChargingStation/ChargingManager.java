@@ -3,11 +3,17 @@ package ChargingStation;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import Logging.SystemLogger;
+import java.util.concurrent.atomic.AtomicLong;
+import Concurrency.BoundedExecutor;
+import Concurrency.ExecutionMode;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
 /**
  * ChargingManager manages a pool of charging stations and queues AGVs.
  * Station IDs are defined externally (no auto-generation).
+ * A dedicated dispatcher thread blocks until a station is free and an AGV is
+ * queued, then hands the pair to the charging workers (one per station).
  * Thread-safe and concurrent.
  */
 public class ChargingManager {
@@ -15,24 +21,50 @@ public class ChargingManager {
     private final List<String> stationIds;
     private final ChargingQueue queue;
     private final ExecutorService executor;
-    private final Semaphore slots;
-    private final long dropThresholdSeconds;
+    private final BlockingQueue<String> freeStations;
+    private final Map<String, ChargingStation> stations;
+    private final ChargingScheduler scheduler;
     private final AtomicBoolean running;
-    private final SystemLogger logger;
+    private final LatencyHistogram dispatchLatency;
+    private final ChargingClock clock;
+    private final AtomicLong droppedCount;
+    private final Logger logger;
+    private volatile Thread dispatcher;
+    private volatile boolean shutdown;
 
     
     public ChargingManager(List<String> stationIds, long dropThresholdSeconds) {
+        this(stationIds, dropThresholdSeconds, ChargingClock.SYSTEM);
+    }
+
+    // A VirtualClock lets ChargingSimulation drive the manager without real waiting
+    public ChargingManager(List<String> stationIds, long dropThresholdSeconds, ChargingClock clock) {
+        this(stationIds, dropThresholdSeconds, clock, ExecutionMode.fromSystemProperty());
+    }
+
+    // One charging session per station at a time, on platform or virtual threads
+    public ChargingManager(List<String> stationIds, long dropThresholdSeconds, ChargingClock clock, ExecutionMode mode) {
         if (stationIds == null || stationIds.isEmpty()) {
             throw new IllegalArgumentException("Station IDs cannot be null or empty.");
         }
 
+        this.logger = LoggerFactory.getLogger("ChargingManager");
+        this.clock = clock;
+        this.droppedCount = new AtomicLong();
         this.stationIds = new ArrayList<>(stationIds);
-        this.queue = new ChargingQueue();
-        this.executor = Executors.newFixedThreadPool(stationIds.size());
-        this.slots = new Semaphore(stationIds.size());
-        this.dropThresholdSeconds = dropThresholdSeconds;
+        this.queue = new ChargingQueue(dropThresholdSeconds, agv -> {
+            droppedCount.incrementAndGet();
+            logger.logWarning("ChargingManager", "AGV " + agv.getId() + " dropped due to timeout.");
+        }, clock);
+        this.executor = new BoundedExecutor("charging", stationIds.size(), mode);
+        this.freeStations = new LinkedBlockingQueue<>(this.stationIds);
+        this.stations = new ConcurrentHashMap<>();
+        for (String id : this.stationIds) {
+            stations.put(id, new ChargingStation(id, ChargingStation.DEFAULT_RATE_PERCENT_PER_SECOND, clock));
+        }
+        this.scheduler = new ChargingScheduler();
         this.running = new AtomicBoolean(false);
-        this.logger = new SystemLogger();
+        this.dispatchLatency = new LatencyHistogram();
 
         logger.logInfo("ChargingManager", "Initialized with " + stationIds.size() + " stations.");
     }
@@ -40,65 +72,74 @@ public class ChargingManager {
     
     public void submitAGV(AGV agv) {
         if (agv == null) return;
+        if (shutdown) {
+            throw new RejectedExecutionException("ChargingManager is shut down");
+        }
 
+        // decided before queueing: once queued, the dispatcher may already have seated the AGV
+        preemptFor(agv);
         queue.add(agv);
-        logger.logInfo("ChargingManager", "AGV " + agv.getId() + " added to queue.");
+        logger.logInfo("ChargingManager", () -> "AGV " + agv.getId() + " added to queue.");
+        startDispatcher();
+    }
 
+    // Asks a running non-urgent charge to give way when an urgent AGV finds no idle station
+    ChargingStation preemptFor(AGV agv) {
+        if (!agv.isUrgent() || hasIdleStation()) return null;
+        ChargingStation victim = scheduler.selectPreemption(agv, stations.values());
+        if (victim != null) {
+            logger.logInfo("ChargingManager", () -> "Preempting " + victim.getStationId() + " for urgent AGV " + agv.getId());
+            victim.requestPreemption();
+        }
+        return victim;
+    }
+
+    // Under the monitor so a racing shutdown() cannot be followed by a fresh dispatcher
+    private synchronized void startDispatcher() {
+        if (shutdown) {
+            throw new RejectedExecutionException("ChargingManager is shut down");
+        }
         if (running.compareAndSet(false, true)) {
-            executor.submit(this::processQueue);
+            Thread t = new Thread(this::dispatchLoop, "charging-dispatcher");
+            t.setDaemon(true);
+            dispatcher = t;
+            t.start();
         }
     }
 
     
-    private void processQueue() {
+    // Waits for a free station, then for the highest-priority AGV; no polling
+    private void dispatchLoop() {
         try {
-            Iterator<String> stationIterator = stationIds.iterator();
-
-            while (!queue.isEmpty()) {
-                AGV candidate = queue.peek();
-                if (candidate == null) break;
-
-                long waited = (System.currentTimeMillis() - candidate.getArrivalTime()) / 1000;
-                if (waited > dropThresholdSeconds) {
-                    logger.logWarning("ChargingManager", "AGV " + candidate.getId() + " dropped due to timeout.");
-                    queue.poll();
-                    continue;
+            while (running.get()) {
+                String stationId = freeStations.take();
+                AGV agv;
+                try {
+                    agv = queue.take();
+                } catch (InterruptedException e) {
+                    freeStations.offer(stationId);
+                    throw e;
                 }
 
-                if (slots.tryAcquire(300, TimeUnit.MILLISECONDS)) {
-                    AGV agv = queue.poll();
-                    if (agv == null) {
-                        slots.release();
-                        continue;
-                    }
-
-                    String stationId;
-                    synchronized (stationIds) {
-                        if (!stationIterator.hasNext()) {
-                            stationIterator = stationIds.iterator();
-                        }
-                        stationId = stationIterator.next();
-                    }
-
-                    logger.logInfo("ChargingManager", "Assigning AGV " + agv.getId() + " to " + stationId);
-
+                ChargingStation station = assign(stationId, agv);
+                try {
                     executor.submit(() -> {
+                        ChargingStation.ChargeOutcome outcome = ChargingStation.ChargeOutcome.FAILED;
                         try {
-                            ChargingStation station = new ChargingStation(stationId, agv);
-                            station.run();
+                            outcome = station.charge(agv, station.getTargetSoc());
                         } catch (Exception e) {
                             logger.logError("ChargingManager", "Error while charging AGV " + agv.getId() + ": " + e.getMessage());
                         } finally {
-                            slots.release();
+                            finishCharge(station, agv, outcome);
                         }
                     });
+                } catch (RejectedExecutionException e) {
+                    finishCharge(station, agv, ChargingStation.ChargeOutcome.FAILED);
+                    break;
                 }
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            logger.logError("ChargingManager", "Interrupted while processing queue.");
-        } finally {
-            running.set(false);
         }
     }
 
@@ -110,8 +151,99 @@ public class ChargingManager {
         return executor;
     }
 
+    // Time from submitAGV to station assignment
+    public LatencyHistogram getDispatchLatency() {
+        return dispatchLatency;
+    }
+
+    public ChargingScheduler getScheduler() {
+        return scheduler;
+    }
+
+    // Replaces a station's charge-rate model; only while the manager is idle
+    public synchronized void setStationRate(String stationId, double chargeRatePercentPerSecond) {
+        if (!stations.containsKey(stationId)) {
+            throw new IllegalArgumentException("Unknown station: " + stationId);
+        }
+        stations.put(stationId, new ChargingStation(stationId, chargeRatePercentPerSecond, clock));
+    }
+
+    public ChargingStation getStation(String stationId) {
+        return stations.get(stationId);
+    }
+
+    public List<String> getStationIds() {
+        return Collections.unmodifiableList(stationIds);
+    }
+
+    public ChargingClock getClock() {
+        return clock;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    // freeStations alone misses the station the dispatcher holds while it waits for an AGV
+    private boolean hasIdleStation() {
+        if (!freeStations.isEmpty()) return true;
+        for (ChargingStation station : stations.values()) {
+            if (station.getCurrentAgv() == null) return true;
+        }
+        return false;
+    }
+
+    // Reserves the station for the AGV at the scheduler's target; the charge itself runs elsewhere
+    private ChargingStation assign(String stationId, AGV agv) {
+        dispatchLatency.record(System.nanoTime() - agv.getQueuedAtNanos());
+        logger.logInfo("ChargingManager", () -> "Assigning AGV " + agv.getId() + " to " + stationId);
+        ChargingStation station = stations.get(stationId);
+        station.begin(agv, scheduler.targetSoc(agv));
+        return station;
+    }
+
+    // Requeues a preempted AGV and frees the station; failed charges are not retried
+    void finishCharge(ChargingStation station, AGV agv, ChargingStation.ChargeOutcome outcome) {
+        station.end();
+        if (outcome == ChargingStation.ChargeOutcome.PREEMPTED) {
+            queue.requeue(agv);
+        }
+        freeStations.offer(station.getStationId());
+    }
+
+    // --- Step-driven dispatch used by ChargingSimulation (no dispatcher thread) ---
+
+    // Queues an AGV without starting the dispatcher thread, preempting like submitAGV
+    ChargingStation offer(AGV agv) {
+        ChargingStation victim = preemptFor(agv);
+        queue.add(agv);
+        return victim;
+    }
+
+    // dispatchLoop's pairing without blocking; null when no station or no AGV is available
+    ChargingStation pollAssignment() {
+        String stationId = freeStations.poll();
+        if (stationId == null) return null;
+        AGV agv = queue.poll();
+        if (agv == null) {
+            freeStations.offer(stationId);
+            return null;
+        }
+        return assign(stationId, agv);
+    }
+
+    public int getFreeStationCount() {
+        return freeStations.size();
+    }
+
     public void shutdown() {
         logger.logInfo("ChargingManager", "Shutting down...");
+        synchronized (this) {
+            shutdown = true;
+            running.set(false);
+        }
+        Thread t = dispatcher;
+        if (t != null) t.interrupt();
         executor.shutdown();
         try {
             if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -121,6 +253,7 @@ public class ChargingManager {
             executor.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        logger.logInfo("ChargingManager", "Dispatch latency: " + dispatchLatency);
         logger.logInfo("ChargingManager", "Stopped.");
     }
 }
@@ -1,42 +1,274 @@
 package ChargingStation;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+/**
+ * Priority charging queue ordered by AGV.compareTo (urgency, battery level,
+ * aged arrival time). A second heap ordered by deadline lets AGVs that waited
+ * longer than the drop threshold be purged lazily wherever they sit, not only
+ * when they reach the head. Insert and removal are O(log n); entries removed
+ * from one heap are skipped when they surface in the other, and a heap is
+ * compacted once its dead entries outnumber the live ones.
+ */
 public class ChargingQueue {
-    private BlockingQueue<AGV> queue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final PriorityQueue<Node> byPriority = new PriorityQueue<>();
+    private final PriorityQueue<Node> byDeadline =
+            new PriorityQueue<>((a, b) -> Long.compare(a.deadline, b.deadline));
+    private final long dropThresholdMillis;
+    private final Consumer<AGV> onDrop;
+    private final ChargingClock clock;
+    private long sequence;
+    private int size;
+    // removed nodes still sitting in each heap
+    private int deadInPriority;
+    private int deadInDeadline;
 
     public ChargingQueue() {
-        queue = new LinkedBlockingQueue<>();
+        this(-1, null);
+    }
+
+    // dropThresholdSeconds < 0 disables timeouts
+    public ChargingQueue(long dropThresholdSeconds, Consumer<AGV> onDrop) {
+        this(dropThresholdSeconds, onDrop, ChargingClock.SYSTEM);
+    }
+
+    public ChargingQueue(long dropThresholdSeconds, Consumer<AGV> onDrop, ChargingClock clock) {
+        this.dropThresholdMillis = dropThresholdSeconds < 0 ? -1 : TimeUnit.SECONDS.toMillis(dropThresholdSeconds);
+        this.onDrop = onDrop;
+        this.clock = clock;
     }
 
-    
+
     public void add(AGV agv) {
-        queue.offer(agv);
+        enqueue(agv, agv.getArrivalTime(), agv.getPriorityKey());
+    }
+
+    /**
+     * Puts a preempted AGV back. Its timeout restarts so it is not dropped on
+     * return, and it is keyed by the requeue time without any boost, so it
+     * queues behind every AGV already waiting, including the urgent one it
+     * made room for, instead of winning the station straight back.
+     */
+    public void requeue(AGV agv) {
+        long now = clock.currentTimeMillis();
+        enqueue(agv, now, Math.max(now, agv.getPriorityKey()));
+    }
+
+    private void enqueue(AGV agv, long waitingSince, long key) {
+        agv.markQueued(System.nanoTime());
+        lock.lock();
+        try {
+            Node node = new Node(agv, key, sequence++, dropThresholdMillis < 0
+                    ? Long.MAX_VALUE : waitingSince + dropThresholdMillis);
+            byPriority.offer(node);
+            if (dropThresholdMillis >= 0) byDeadline.offer(node);
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    
+
     public AGV poll() {
-        return queue.poll();
+        List<AGV> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            purgeExpired(dropped);
+            return removeHead();
+        } finally {
+            lock.unlock();
+            notifyDropped(dropped);
+        }
     }
 
-    
+    // Blocks until an AGV arrives; expired AGVs are purged while waiting
+    public AGV take() throws InterruptedException {
+        List<AGV> dropped = new ArrayList<>();
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                purgeExpired(dropped);
+                AGV agv = removeHead();
+                if (agv != null) return agv;
+                if (!dropped.isEmpty()) {
+                    // report drops without holding the lock, then keep waiting
+                    lock.unlock();
+                    try {
+                        notifyDropped(dropped);
+                    } finally {
+                        lock.lock();
+                    }
+                    dropped.clear();
+                    continue;
+                }
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+            notifyDropped(dropped);
+        }
+    }
+
+
     public AGV peek() {
-        return queue.peek();
+        List<AGV> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            purgeExpired(dropped);
+            Node head = liveHead();
+            return head == null ? null : head.agv;
+        } finally {
+            lock.unlock();
+            notifyDropped(dropped);
+        }
     }
 
-    
+
     public int size() {
-        return queue.size();
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    
+
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return size() == 0;
     }
 
-    public BlockingQueue<AGV> getQueue() {
-        return queue;
+    /** Drops every AGV whose deadline has passed; returns how many were dropped. */
+    public int purgeExpired() {
+        List<AGV> dropped = new ArrayList<>();
+        int count;
+        lock.lock();
+        try {
+            purgeExpired(dropped);
+            count = dropped.size();
+        } finally {
+            lock.unlock();
+            notifyDropped(dropped);
+        }
+        return count;
     }
-}
 
+    /** Queued AGVs in the order the queue will hand them out. */
+    public List<AGV> snapshot() {
+        List<Node> live = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Node n : byPriority) {
+                if (!n.removed) live.add(n);
+            }
+            // the heap's own ordering; AGV.compareTo reads live battery and ignores requeue keys
+            Collections.sort(live);
+        } finally {
+            lock.unlock();
+        }
+        List<AGV> agvs = new ArrayList<>(live.size());
+        for (Node n : live) agvs.add(n.agv);
+        return agvs;
+    }
+
+    private void purgeExpired(List<AGV> dropped) {
+        long now = clock.currentTimeMillis();
+        Node n;
+        while ((n = byDeadline.peek()) != null && (n.removed || n.deadline < now)) {
+            byDeadline.poll();
+            if (n.removed) {
+                deadInDeadline--;
+            } else {
+                n.removed = true;
+                size--;
+                deadInPriority++;
+                dropped.add(n.agv);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    // Rebuilds a heap when dead entries dominate it, so churn cannot grow memory
+    private void compactIfNeeded() {
+        if (deadInPriority > 64 && deadInPriority > size) {
+            byPriority.removeIf(x -> x.removed);
+            deadInPriority = 0;
+        }
+        if (deadInDeadline > 64 && deadInDeadline > size) {
+            byDeadline.removeIf(x -> x.removed);
+            deadInDeadline = 0;
+        }
+    }
+
+    // Entries held by both heaps, live or dead; for tests
+    int heapEntries() {
+        lock.lock();
+        try {
+            return byPriority.size() + byDeadline.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Node liveHead() {
+        Node n;
+        while ((n = byPriority.peek()) != null && n.removed) {
+            byPriority.poll();
+            deadInPriority--;
+        }
+        return n;
+    }
+
+    private AGV removeHead() {
+        Node n = liveHead();
+        if (n == null) return null;
+        byPriority.poll();
+        n.removed = true; // left in byDeadline until it surfaces there or is compacted away
+        size--;
+        if (dropThresholdMillis >= 0) {
+            deadInDeadline++;
+            compactIfNeeded();
+        }
+        return n.agv;
+    }
+
+    private void notifyDropped(List<AGV> dropped) {
+        if (onDrop == null) return;
+        for (AGV agv : dropped) onDrop.accept(agv);
+        dropped.clear();
+    }
+
+    private static final class Node implements Comparable<Node> {
+        final AGV agv;
+        final long key;
+        final long seq;
+        final long deadline;
+        boolean removed;
+
+        Node(AGV agv, long key, long seq, long deadline) {
+            this.agv = agv;
+            this.key = key; // fixed at enqueue time
+            this.seq = seq;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            int c = Long.compare(key, other.key);
+            if (c != 0) return c;
+            if (agv.isUrgent() != other.agv.isUrgent()) return agv.isUrgent() ? -1 : 1;
+            return Long.compare(seq, other.seq);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ChargingStation;
+
+import java.util.Collection;
+import java.util.function.IntSupplier;
+
+/**
+ * Decides how far each AGV is charged and which charge gives way to an
+ * urgent arrival. Targets follow pending task demand so AGVs return to work
+ * as soon as they hold enough energy, which keeps more of the fleet available
+ * than charging every AGV to 100% in FIFO order.
+ */
+public class ChargingScheduler {
+
+    // Percent of battery one task consumes and the reserve kept on top of it
+    private static final int ENERGY_PER_TASK = 5;
+    private static final int RESERVE_SOC = 20;
+    private static final int MIN_TARGET_SOC = 60;
+    // Preempted AGVs must leave with at least this much charge
+    private static final int MIN_PREEMPT_SOC = 30;
+
+    private volatile IntSupplier pendingTasks;
+    private volatile int fleetSize = 1;
+
+    /** Without demand information every AGV is charged to full. */
+    public void setDemand(IntSupplier pendingTasks, int fleetSize) {
+        this.pendingTasks = pendingTasks;
+        this.fleetSize = Math.max(1, fleetSize);
+    }
+
+    public int targetSoc(AGV agv) {
+        IntSupplier demand = pendingTasks;
+        if (demand == null || agv.isUrgent()) return 100;
+        int tasksPerAgv = (int) Math.ceil(demand.getAsInt() / (double) fleetSize);
+        int target = RESERVE_SOC + tasksPerAgv * ENERGY_PER_TASK;
+        return Math.max(MIN_TARGET_SOC, Math.min(100, target));
+    }
+
+    /**
+     * Picks the station to preempt for an urgent AGV: a non-urgent charge that
+     * already holds the most energy. Returns null when nothing qualifies.
+     */
+    public ChargingStation selectPreemption(AGV urgent, Collection<ChargingStation> stations) {
+        if (urgent == null || !urgent.isUrgent()) return null;
+        ChargingStation best = null;
+        int bestSoc = -1;
+        for (ChargingStation station : stations) {
+            AGV current = station.getCurrentAgv();
+            if (current == null || current.isUrgent()) continue;
+            int soc = current.getBatteryLevel();
+            if (soc >= MIN_PREEMPT_SOC && soc > bestSoc) {
+                best = station;
+                bestSoc = soc;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,244 @@
+package ChargingStation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Deterministic discrete-event simulation of a charging fleet.
+ * Drives a ChargingManager on a VirtualClock from a single thread. Queueing,
+ * drops, station assignment, target SoC, preemption choice and requeueing go
+ * through the same manager code the dispatcher thread uses; only the charge
+ * itself is modelled instead of run: each session ends at the time
+ * ChargingStation.charge would need on that station, and a preempted session
+ * stops at charge()'s next step. Random station malfunctions are not modelled.
+ * The same seed always gives the same report, and a fleet of thousands runs in
+ * well under real time.
+ */
+public class ChargingSimulation {
+
+    private final Config config;
+
+    public ChargingSimulation(Config config) {
+        this.config = config;
+    }
+
+    public Report run() {
+        VirtualClock clock = new VirtualClock(0);
+        List<String> stationIds = new ArrayList<>(config.stations);
+        for (int i = 0; i < config.stations; i++) stationIds.add(String.format("ST-%04d", i));
+        ChargingManager manager = new ChargingManager(stationIds, config.dropThresholdSeconds, clock);
+        try {
+            return run(manager, clock);
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    private Report run(ChargingManager manager, VirtualClock clock) {
+        for (String id : manager.getStationIds()) manager.setStationRate(id, config.chargeRatePercentPerSecond);
+        if (config.pendingTasks >= 0) {
+            manager.getScheduler().setDemand(() -> config.pendingTasks, config.agvs);
+        }
+
+        Random random = new Random(config.seed);
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        long seq = 0;
+        for (int i = 0; i < config.agvs; i++) {
+            long arrival = (long) (random.nextDouble() * config.arrivalWindowMillis);
+            int battery = random.nextInt(config.maxArrivalBattery + 1);
+            boolean urgent = random.nextDouble() < config.urgentFraction;
+            AGV agv = new AGV(String.format("AGV-%05d", i), battery, urgent, arrival);
+            events.add(new Event(arrival, seq++, agv, null, null));
+        }
+
+        Map<String, Session> sessions = new HashMap<>();
+        // preempted AGVs wait again from the moment they are requeued
+        Map<AGV, Long> queuedAt = new HashMap<>();
+        long[] waits = new long[Math.max(16, config.agvs)];
+        int charged = 0;
+        int preemptions = 0;
+        long busyMillis = 0;
+        long lastEvent = 0;
+
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            if (event.session != null && event.session.ended) continue;
+            clock.advanceTo(event.time);
+            lastEvent = event.time;
+
+            if (event.session != null) {
+                Session s = event.session;
+                s.ended = true;
+                s.agv.setBatteryLevel(s.station.levelAfter(s.startSoc, s.target, event.time - s.start));
+                busyMillis += event.time - s.start;
+                sessions.remove(s.station.getStationId());
+                if (event.outcome == ChargingStation.ChargeOutcome.PREEMPTED) {
+                    queuedAt.put(s.agv, event.time);
+                    preemptions++;
+                }
+                manager.finishCharge(s.station, s.agv, event.outcome);
+            } else {
+                if (event.agv.isUrgent() && manager.getFreeStationCount() == 0) {
+                    updateLevels(sessions, event.time);
+                }
+                ChargingStation victim = manager.offer(event.agv);
+                Session s = victim != null ? sessions.get(victim.getStationId()) : null;
+                if (s != null && !s.preempting) {
+                    // charge() notices the request before its next step
+                    s.preempting = true;
+                    long elapsed = event.time - s.start;
+                    long step = ChargingStation.STEP_MS;
+                    long stop = s.start + (elapsed + step - 1) / step * step;
+                    events.add(new Event(stop, seq++, s.agv, s, ChargingStation.ChargeOutcome.PREEMPTED));
+                }
+            }
+
+            ChargingStation station;
+            while ((station = manager.pollAssignment()) != null) {
+                AGV agv = station.getCurrentAgv();
+                if (charged == waits.length) waits = Arrays.copyOf(waits, waits.length * 2);
+                Long since = queuedAt.remove(agv);
+                waits[charged++] = event.time - (since != null ? since : agv.getArrivalTime());
+                Session s = new Session(station, agv, event.time, station.getTargetSoc());
+                sessions.put(station.getStationId(), s);
+                long duration = station.estimateChargeMillis(s.startSoc, s.target);
+                events.add(new Event(event.time + duration, seq++, agv, s, ChargingStation.ChargeOutcome.COMPLETED));
+            }
+        }
+        long[] sortedWaits = Arrays.copyOf(waits, charged);
+        Arrays.sort(sortedWaits);
+        return new Report(config.agvs, charged, manager.getDroppedCount(), preemptions,
+                sortedWaits, busyMillis, (long) config.stations * lastEvent, lastEvent);
+    }
+
+    // Brings running sessions up to the level charge() would have reached, so preemption sees it
+    private static void updateLevels(Map<String, Session> sessions, long now) {
+        for (Session s : sessions.values()) {
+            s.agv.setBatteryLevel(s.station.levelAfter(s.startSoc, s.target, now - s.start));
+        }
+    }
+
+    private static final class Session {
+        final ChargingStation station;
+        final AGV agv;
+        final long start;
+        final int startSoc;
+        final int target;
+        boolean preempting;
+        boolean ended;
+
+        Session(ChargingStation station, AGV agv, long start, int target) {
+            this.station = station;
+            this.agv = agv;
+            this.start = start;
+            this.startSoc = agv.getBatteryLevel();
+            this.target = target;
+        }
+    }
+
+    // session == null marks an arrival, otherwise the end of that session's charge
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long seq;
+        final AGV agv;
+        final Session session;
+        final ChargingStation.ChargeOutcome outcome;
+
+        Event(long time, long seq, AGV agv, Session session, ChargingStation.ChargeOutcome outcome) {
+            this.time = time;
+            this.seq = seq;
+            this.agv = agv;
+            this.session = session;
+            this.outcome = outcome;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int c = Long.compare(time, other.time);
+            return c != 0 ? c : Long.compare(seq, other.seq);
+        }
+    }
+
+    public static class Config {
+        private int agvs = 10_000;
+        private int stations = 1_000;
+        private long arrivalWindowMillis = 3_600_000;
+        private double chargeRatePercentPerSecond = 0.25;
+        private long dropThresholdSeconds = 1_800;
+        private double urgentFraction = 0.1;
+        private int maxArrivalBattery = 50;
+        private int pendingTasks = -1;
+        private long seed = 42;
+
+        public Config agvs(int agvs) { this.agvs = agvs; return this; }
+        public Config stations(int stations) { this.stations = stations; return this; }
+        public Config arrivalWindowMillis(long millis) { this.arrivalWindowMillis = millis; return this; }
+        public Config chargeRate(double percentPerSecond) { this.chargeRatePercentPerSecond = percentPerSecond; return this; }
+        public Config dropThresholdSeconds(long seconds) { this.dropThresholdSeconds = seconds; return this; }
+        public Config urgentFraction(double fraction) { this.urgentFraction = fraction; return this; }
+        public Config maxArrivalBattery(int percent) { this.maxArrivalBattery = percent; return this; }
+        // Pending task count fed to the scheduler; negative charges every AGV to full
+        public Config pendingTasks(int tasks) { this.pendingTasks = tasks; return this; }
+        public Config seed(long seed) { this.seed = seed; return this; }
+    }
+
+    public static class Report {
+        private final int agvs;
+        private final int charged;
+        private final long dropped;
+        private final int preemptions;
+        private final long[] sortedWaits;
+        private final long busyMillis;
+        private final long capacityMillis;
+        private final long makespanMillis;
+
+        Report(int agvs, int charged, long dropped, int preemptions, long[] sortedWaits,
+               long busyMillis, long capacityMillis, long makespanMillis) {
+            this.agvs = agvs;
+            this.charged = charged;
+            this.dropped = dropped;
+            this.preemptions = preemptions;
+            this.sortedWaits = sortedWaits;
+            this.busyMillis = busyMillis;
+            this.capacityMillis = capacityMillis;
+            this.makespanMillis = makespanMillis;
+        }
+
+        public int getAgvs() { return agvs; }
+        // Charge sessions started; a preempted AGV that returns counts twice
+        public int getCharged() { return charged; }
+        public long getDropped() { return dropped; }
+        public int getPreemptions() { return preemptions; }
+        public long getMakespanMillis() { return makespanMillis; }
+
+        public double getDropRate() {
+            return agvs == 0 ? 0 : dropped / (double) agvs;
+        }
+
+        // Share of station time spent charging over the whole run
+        public double getStationUtilization() {
+            return capacityMillis == 0 ? 0 : busyMillis / (double) capacityMillis;
+        }
+
+        /** Queue wait of charged AGVs at the given percentile (0-100), in milliseconds. */
+        public long getWaitPercentileMillis(double percentile) {
+            if (sortedWaits.length == 0) return 0;
+            int index = (int) Math.ceil(percentile / 100.0 * sortedWaits.length) - 1;
+            return sortedWaits[Math.max(0, Math.min(sortedWaits.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("AGVs=%d charged=%d dropped=%d (%.2f%%) preemptions=%d "
+                            + "wait p50=%dms p95=%dms p99=%dms max=%dms utilization=%.1f%% makespan=%dms",
+                    agvs, charged, dropped, getDropRate() * 100, preemptions,
+                    getWaitPercentileMillis(50), getWaitPercentileMillis(95), getWaitPercentileMillis(99),
+                    getWaitPercentileMillis(100), getStationUtilization() * 100, makespanMillis);
+        }
+    }
+}
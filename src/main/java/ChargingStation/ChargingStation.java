@@ -1,41 +1,153 @@
 package ChargingStation;
 
 import Exceptions.ChargingException;
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
+/**
+ * A charging station with its own charge-rate model.
+ * Charges an AGV in small steps up to a target state of charge and stops
+ * early when a preemption is requested (opportunity charging).
+ */
 public class ChargingStation implements Runnable {
-    private String stationId;
-    private AGV agv;
-    private SystemLogger logger;
+
+    public enum ChargeOutcome { COMPLETED, PREEMPTED, FAILED }
+
+    public static final double DEFAULT_RATE_PERCENT_PER_SECOND = 100.0;
+    static final long STEP_MS = 100;
+
+    private final String stationId;
+    private final double chargeRatePercentPerSecond;
+    private final ChargingClock clock;
+    private final Logger logger;
+    private volatile AGV agv;
+    private volatile int targetSoc = 100;
+    private volatile boolean preemptRequested;
 
     public ChargingStation(String stationId, AGV agv) {
-        this.stationId = stationId;
+        this(stationId, DEFAULT_RATE_PERCENT_PER_SECOND);
         this.agv = agv;
-        this.logger = new SystemLogger();
+    }
+
+    public ChargingStation(String stationId, double chargeRatePercentPerSecond) {
+        this(stationId, chargeRatePercentPerSecond, ChargingClock.SYSTEM);
+    }
+
+    public ChargingStation(String stationId, double chargeRatePercentPerSecond, ChargingClock clock) {
+        if (chargeRatePercentPerSecond <= 0) {
+            throw new IllegalArgumentException("Charge rate must be positive.");
+        }
+        this.stationId = stationId;
+        this.chargeRatePercentPerSecond = chargeRatePercentPerSecond;
+        this.clock = clock;
+        this.logger = LoggerFactory.getLogger("ChargingStation");
     }
 
     @Override
     public void run() {
+        AGV current = agv;
+        if (current != null) charge(current, targetSoc);
+    }
+
+    /** Charges the AGV up to targetSoc (percent); returns how the session ended. */
+    public ChargeOutcome charge(AGV agv, int targetSoc) {
+        this.agv = agv;
+        this.targetSoc = Math.max(0, Math.min(100, targetSoc));
+        // preemptRequested is cleared by begin() and after the session, so a request made
+        // between assignment and this call still stops the charge
         try {
-            logger.logInfo("Station-" + stationId, "Starting charging for AGV-" + agv.getId());
+            logger.logInfo("Station-" + stationId, "Starting charging for AGV-" + agv.getId()
+                    + " (" + agv.getBatteryLevel() + "% -> " + this.targetSoc + "%)");
             if (Math.random() < 0.02) {
                 throw new ChargingException(
                     "Hardware failure at station " + stationId,
                     ChargingException.ChargingErrorType.MALFUNCTION
                 );
             }
-            agv.charge();
+            int startSoc = agv.getBatteryLevel();
+            int level = startSoc;
+            long elapsed = 0;
+            while (level < this.targetSoc) {
+                if (preemptRequested) {
+                    logger.logInfo("Station-" + stationId, "Charging preempted for AGV-" + agv.getId()
+                            + " at " + agv.getBatteryLevel() + "%");
+                    return ChargeOutcome.PREEMPTED;
+                }
+                clock.sleep(STEP_MS);
+                elapsed += STEP_MS;
+                level = levelAfter(startSoc, this.targetSoc, elapsed);
+                agv.setBatteryLevel(level);
+            }
             logger.logInfo("Station-" + stationId, "Finished charging" + agv.getId());
+            return ChargeOutcome.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.logError("Station-" + stationId, "Charging error: " + ChargingException.ChargingErrorType.CONNECTION_LOST);
+            return ChargeOutcome.FAILED;
         } catch (ChargingException e) {
             logger.logError("Station-" + stationId, "Charging error: " + e.getErrorType());
+            return ChargeOutcome.FAILED;
         } catch (Exception e) {
             logger.logError("Station-" + stationId, "Unexpected error: " + e.getMessage());
+            return ChargeOutcome.FAILED;
+        } finally {
+            this.agv = null;
+            this.preemptRequested = false;
         }
     }
 
+    // Marks the station busy as soon as it is assigned, before charge() starts
+    void begin(AGV agv, int targetSoc) {
+        this.agv = agv;
+        this.targetSoc = Math.max(0, Math.min(100, targetSoc));
+        this.preemptRequested = false;
+    }
+
+    void end() {
+        this.agv = null;
+        this.preemptRequested = false;
+    }
+
+    int getTargetSoc() {
+        return targetSoc;
+    }
+
+    // Asks the running session to stop at its next step
+    public void requestPreemption() {
+        preemptRequested = true;
+    }
+
+    /** Milliseconds charge() needs to bring the given level up to the target at this station's rate. */
+    public long estimateChargeMillis(int fromSoc, int toSoc) {
+        return stepsToCharge(fromSoc, toSoc) * STEP_MS;
+    }
+
+    // Battery level charge() reports after the given charging time; shared with ChargingSimulation
+    int levelAfter(int fromSoc, int toSoc, long elapsedMillis) {
+        long steps = elapsedMillis / STEP_MS;
+        if (steps >= stepsToCharge(fromSoc, toSoc)) return Math.max(fromSoc, toSoc);
+        return (int) (fromSoc + steps * percentPerStep());
+    }
+
+    private long stepsToCharge(int fromSoc, int toSoc) {
+        if (toSoc <= fromSoc) return 0;
+        return (long) Math.ceil((toSoc - fromSoc) / percentPerStep());
+    }
+
+    private double percentPerStep() {
+        return chargeRatePercentPerSecond * STEP_MS / 1000.0;
+    }
+
 	public String getStationId() {
 		return stationId;
 	}
 
-	
+    public double getChargeRatePercentPerSecond() {
+        return chargeRatePercentPerSecond;
+    }
+
+    // AGV currently charging, or null when idle
+    public AGV getCurrentAgv() {
+        return agv;
+    }
 }
@@ -0,0 +1,31 @@
+package ChargingStation;
+
+/**
+ * Manually advanced clock for discrete-event simulation.
+ * sleep() moves time forward instead of blocking.
+ */
+public class VirtualClock implements ChargingClock {
+
+    private long now;
+
+    public VirtualClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public synchronized long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public synchronized void sleep(long millis) {
+        if (millis > 0) now += millis;
+    }
+
+    public synchronized void advanceTo(long millis) {
+        if (millis < now) {
+            throw new IllegalArgumentException("Virtual time cannot go backwards.");
+        }
+        now = millis;
+    }
+}
@@ -0,0 +1,106 @@
+package Concurrency;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor whose concurrency is capped by a semaphore rather than a pool size.
+ * In VIRTUAL mode every task gets its own virtual thread and waits for a
+ * permit there, so queued work is just parked threads; in PLATFORM mode a
+ * fixed pool of the same size backs it and the permit never blocks.
+ */
+public class BoundedExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int limit;
+    private final ExecutionMode mode;
+    private final AtomicInteger active = new AtomicInteger();
+
+    public BoundedExecutor(String name, int limit) {
+        this(name, limit, ExecutionMode.fromSystemProperty());
+    }
+
+    public BoundedExecutor(String name, int limit, ExecutionMode mode) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.limit = limit;
+        this.mode = mode;
+        this.permits = new Semaphore(limit);
+        this.delegate = mode == ExecutionMode.VIRTUAL
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory())
+                : Executors.newFixedThreadPool(limit, platformThreads(name));
+    }
+
+    private static ThreadFactory platformThreads(String name) {
+        AtomicInteger next = new AtomicInteger();
+        return r -> new Thread(r, name + "-" + next.getAndIncrement());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // shut down before the task got a permit
+                if (command instanceof Future<?> f) f.cancel(false);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            active.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                active.decrementAndGet();
+                permits.release();
+            }
+        });
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // Tasks currently holding a permit
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,28 @@
+package Concurrency;
+
+import java.util.Locale;
+
+/**
+ * How the blocking subsystems run their work.
+ * PLATFORM keeps fixed pools of OS threads; VIRTUAL starts one virtual thread
+ * per task, so tasks that mostly sleep or wait cost almost nothing while parked.
+ * The default comes from the execution.mode system property (platform|virtual).
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    public static final String PROPERTY = "execution.mode";
+
+    public static ExecutionMode fromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null || value.isBlank()) {
+            return PLATFORM;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return PLATFORM;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package Database;
 
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.*;
@@ -9,7 +10,7 @@ import java.util.*;
 public class DbGenerator {
 
     private static String OUTPUT_DIR = "src/main/resources/database/";
-    private static SystemLogger logger = new SystemLogger();
+    private static Logger logger = LoggerFactory.getLogger("DatabaseGenerator");
 
     public static void generateAll() throws IOException {
         Files.createDirectories(Paths.get(OUTPUT_DIR));
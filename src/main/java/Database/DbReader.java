@@ -5,7 +5,8 @@ import StorageManagement.StorageLocation;
 import TaskManagement.Task;
 import OrderManagement.Medicine;
 import OrderManagement.Order;
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
 import java.io.*;
 import java.nio.file.*;
@@ -14,7 +15,7 @@ import java.util.*;
 public class DbReader {
 
     private static String BASE_PATH = "src/main/resources/database/";
-    private static SystemLogger logger = new SystemLogger();
+    private static Logger logger = LoggerFactory.getLogger("DatabaseReader");
 
     
     public static List<AGV> loadAGVs() {
@@ -29,7 +30,13 @@ public class DbReader {
     public static List<Task> loadTasks() {
         return loadCSV(BASE_PATH + "task.csv", new CSVMapper<Task>() {
             public Task map(String[] parts) {
-                return new Task(parts[0], parts[1], parts[2], parts[3], parts[4]);
+                long createdAt = parts.length > 5 ? Task.parseTimestamp(parts[5], System.currentTimeMillis()) : System.currentTimeMillis();
+                try {
+                    return new Task(parts[0], parts[1], parts[2], parts[3], parts[4], createdAt);
+                } catch (IllegalArgumentException e) {
+                    logger.logWarning("DatabaseReader", "Invalid task line skipped (" + e.getMessage() + "): " + Arrays.toString(parts));
+                    return null;
+                }
             }
         });
     }
@@ -39,7 +46,12 @@ public class DbReader {
         return loadCSV(BASE_PATH + "storagelocation.csv", new CSVMapper<StorageLocation>() {
             public StorageLocation map(String[] parts) {
                 try {
-                    return new StorageLocation(parts[0], Integer.parseInt(parts[1]));
+                    StorageLocation location = new StorageLocation(parts[0], Integer.parseInt(parts[1]));
+                    // optional currentLoad column
+                    if (parts.length > 2 && !location.tryAdd(Integer.parseInt(parts[2].trim()))) {
+                        throw new IllegalArgumentException("currentLoad exceeds capacity");
+                    }
+                    return location;
                 } catch (Exception e) {
                     logger.logWarning("DatabaseReader", "Invalid storage line skipped: " + Arrays.toString(parts));
                     return null;
@@ -65,6 +77,17 @@ public class DbReader {
         return ids;
     }
 
+
+    // Ids of the robotic arms marked active in roboticarm.csv
+    public static List<String> loadRoboticArmIds() {
+        return loadCSV(BASE_PATH + "roboticarm.csv", new CSVMapper<String>() {
+            public String map(String[] parts) {
+                boolean active = parts.length < 2 || Boolean.parseBoolean(parts[1].trim());
+                return active ? parts[0].trim() : null;
+            }
+        });
+    }
+
     
     public static List<Medicine> loadMedicines() {
         return loadCSV(BASE_PATH + "medicine.csv", new CSVMapper<Medicine>() {
@@ -1,14 +1,15 @@
 package Exceptions;
 
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.*;
 
 public class ExceptionHandler {
-    private SystemLogger logger;
+    private Logger logger;
 
     public ExceptionHandler() {
-        this.logger = new SystemLogger();
+        this.logger = LoggerFactory.getLogger("ExceptionHandler");
     }
 
     
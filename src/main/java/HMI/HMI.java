@@ -1,12 +1,16 @@
 package HMI;
 
+import Concurrency.BoundedExecutor;
 import ChargingStation.AGV;
 import ChargingStation.ChargingManager;
 import ChargingStation.ChargingQueue;
 import StorageManagement.StorageLocation;
+import StorageManagement.StockJournal;
 import StorageManagement.StorageManager;
+import TaskManagement.Task;
 import TaskManagement.TaskManager;
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 import Database.DbReader;
 import OrderManagement.Medicine;
 import Exceptions.StorageException;
@@ -16,11 +20,16 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class HMI extends JFrame {
@@ -30,9 +39,17 @@ public class HMI extends JFrame {
 
     // Backend components (may be re-created on restart)
     public StorageManager storageManager;
+    private StockJournal stockJournal;
+    // stock loads are replayed from here on every start, so they survive a restart
+    private static final Path STOCK_JOURNAL_DIR = Paths.get("data", "stock-journal");
     private TaskManager taskManager;
     private ChargingManager chargingManager;
-    private SystemLogger logger = new SystemLogger();
+    private ExecutorService orderExecutor;
+    // orders simulated at once; on virtual threads the rest wait parked, not on OS threads
+    private static final int MAX_ACTIVE_ORDERS = 64;
+    // how long placing an order may wait for task admission on the EDT
+    private static final long TASK_OFFER_TIMEOUT_MS = 50;
+    private Logger logger = LoggerFactory.getLogger("HMI");
 
     // System running flag
     private final AtomicBoolean running = new AtomicBoolean(true);
@@ -92,23 +109,56 @@ public class HMI extends JFrame {
         try {
             if (storageManager != null) storageManager.shutdown();
         } catch (Exception ignored) {}
+        closeStockJournal();
         try { if (taskManager != null) taskManager.shutdown(); } catch (Exception ignored) {}
         try { if (chargingManager != null) chargingManager.shutdown(); } catch (Exception ignored) {}
+        if (orderExecutor != null) orderExecutor.shutdownNow();
 
-        storageManager = new StorageManager("robotic-arm-1");
+        List<String> armIds = DbReader.loadRoboticArmIds();
+        storageManager = armIds.isEmpty() ? new StorageManager("robotic-arm-1") : new StorageManager(armIds);
+        openStockJournal();
         taskManager = new TaskManager(2);
+        taskManager.processTasks(); // workers drain the queue, so admitted tasks free their slots
+        orderExecutor = new BoundedExecutor("order", MAX_ACTIVE_ORDERS);
         chargingManager = new ChargingManager(Arrays.asList("CS-1", "CS-2"), 60L); // 2 charging stations
+        // charge targets follow the pending task backlog spread over the AGV fleet
+        chargingManager.getScheduler().setDemand(() -> taskManager.getTaskQueue().size(), 5);
         running.set(true);
         safeAppendLog("System components started.");
     }
 
+    // Attached before any location is registered, so each one takes its journaled load
+    private void openStockJournal() {
+        try {
+            stockJournal = new StockJournal(STOCK_JOURNAL_DIR);
+            storageManager.attachJournal(stockJournal);
+        } catch (IOException | StorageException e) {
+            closeStockJournal();
+            logger.logError("HMI", "Stock journal unavailable: " + e.getMessage());
+            safeAppendLog("Stock journal unavailable, stock will not survive a restart: " + e.getMessage());
+        }
+    }
+
+    // Only after the storage manager has shut down, so no move is still being journaled
+    private void closeStockJournal() {
+        if (stockJournal == null) return;
+        try {
+            stockJournal.close();
+        } catch (IOException e) {
+            logger.logError("HMI", "Failed to close stock journal: " + e.getMessage());
+        }
+        stockJournal = null;
+    }
+
     private void stopSystemComponents() {
         running.set(false);
         if (refreshTimer != null) refreshTimer.stop();
         if (clockTimer != null) clockTimer.stop();
         try { taskManager.shutdown(); } catch (Exception ignored) {}
         try { storageManager.shutdown(); } catch (Exception ignored) {}
+        closeStockJournal();
         try { chargingManager.shutdown(); } catch (Exception ignored) {}
+        if (orderExecutor != null) orderExecutor.shutdownNow();
         safeAppendLog("System components stopped.");
         // stop AGV sim thread
         if (agvSimThread != null) {
@@ -348,6 +398,15 @@ public class HMI extends JFrame {
         if (loc == null) loc = "LOC-1";
 
         try {
+            // create the backend task first; never block the EDT when the task backlog is full
+            Task task = new Task(orderId + "-PICK", "PICK", loc, "DISPATCH", "PENDING",
+                    Task.parseTimestamp(createdAt, System.currentTimeMillis()));
+            if (!taskManager.offerTask(task, TASK_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                appendLog("Task backlog full, order not placed: " + med + " x" + qty, Color.RED);
+                orderResultLabel.setText("System busy, please retry the order.");
+                return;
+            }
+
             // register order in UI tracking
             orderStatus.put(orderId, "CREATED");
             appendLog("Order created: " + orderId + " (" + med + " x" + qty + ")", Color.GREEN.darker());
@@ -359,9 +418,6 @@ public class HMI extends JFrame {
             qtySpinner.setValue(1);
             medicineCombo.setSelectedIndex(-1);
 
-            // create backend task
-            taskManager.createTask("PICK", loc, "DISPATCH", "PENDING", createdAt);
-
             // simulate asynchronous progress for this order
             simulateOrderProgress(orderId, med, loc, qty);
 
@@ -373,8 +429,8 @@ public class HMI extends JFrame {
 
     // Simulate order progress in background (updates orderStatus map and UI/logs)
     private void simulateOrderProgress(String orderId, String med, String loc, int qty) {
-        // run in background thread so UI remains responsive
-        new Thread(() -> {
+        // run in background so UI remains responsive
+        orderExecutor.execute(() -> {
             try {
                 orderStatus.put(orderId, "PLACED");
                 appendLog("Order " + orderId + " status -> PLACED", Color.BLUE);
@@ -386,7 +442,7 @@ public class HMI extends JFrame {
                 // Simulate time to pick (wait) and then deduct stock
                 Thread.sleep(2000);
                 try {
-                    StorageLocation s = storageManager.getStorageLocations().stream().filter(x -> x.getId().equals(loc)).findFirst().orElse(null);
+                    StorageLocation s = storageManager.findLocation(loc);
                     if (s != null) {
                         storageManager.removeStockSync(s, qty);
                         appendLog("Stock removed: " + qty + " from " + loc, Color.DARK_GRAY);
@@ -406,7 +462,7 @@ public class HMI extends JFrame {
                 appendLog("Order " + orderId + " status -> COMPLETED", Color.GREEN.darker());
 
             } catch (InterruptedException ignored) {}
-        }).start();
+        });
     }
 
     private void populateMedicineCombo() {
@@ -488,7 +544,7 @@ public class HMI extends JFrame {
                 for (Map.Entry<String,String> e : medicineToLocation.entrySet()) {
                 String med = e.getKey();
                 String loc = e.getValue();
-                StorageLocation s = storageManager.getStorageLocations().stream().filter(x -> x.getId().equals(loc)).findFirst().orElse(null);
+                StorageLocation s = storageManager.findLocation(loc);
                 int qty = s == null ? 0 : storageManager.getInventory().getStock(s);
                 stockTableModel.addRow(new Object[]{med, loc, qty});
                 }
@@ -516,12 +572,9 @@ public class HMI extends JFrame {
 
         // initialize batteries map from charging queue
         ChargingQueue q = chargingManager.getQueue();
-        for (Object o : q.getQueue().toArray()) {
-            if (o instanceof AGV) {
-                AGV a = (AGV)o;
-                agvBattery.put(a.getId(), a.getBatteryLevel());
-                agvChargingStatus.put(a.getId(), "IDLE");
-            }
+        for (AGV a : q.snapshot()) {
+            agvBattery.put(a.getId(), a.getBatteryLevel());
+            agvChargingStatus.put(a.getId(), "IDLE");
         }
 
         agvSimThread = new Thread(() -> {
@@ -577,7 +630,8 @@ public class HMI extends JFrame {
                     try {
                         StorageLocation sl = new StorageLocation("LOC-" + i, 100);
                         storageManager.addStorageLocation(sl);
-                        storageManager.addStock(sl, 50 + random.nextInt(50));
+                        // a location recovered from the stock journal keeps its load
+                        if (sl.getCurrentLoad() == 0) storageManager.addStock(sl, 50 + random.nextInt(50));
                     } catch (StorageException se) {
                         // ignore
                     }
@@ -633,7 +687,9 @@ public class HMI extends JFrame {
             if (clockTimer != null) clockTimer.stop();
             if (taskManager != null) taskManager.shutdown();
             if (storageManager != null) storageManager.shutdown();
+            closeStockJournal();
             if (chargingManager != null) chargingManager.shutdown();
+            if (orderExecutor != null) orderExecutor.shutdownNow();
             if (agvSimThread != null) agvSimThread.interrupt();
         } catch (Exception ignored) {}
         super.dispose();
@@ -0,0 +1,309 @@
+package Logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous appender for SystemLogger.
+ * Producers push LogEntry objects onto a bounded lock-free ring buffer and a
+ * single writer thread drains them in batches into a FileChannel that stays
+ * open until the day (taken from the entry timestamp) changes.
+ * Appenders are created through open(), which starts the writer; one JVM
+ * shutdown hook flushes every appender still open.
+ */
+public class AsyncLogAppender implements AutoCloseable {
+
+    public enum OverflowPolicy {
+        BLOCK,           // producer waits for free space
+        DROP_OLDEST,     // oldest queued entry is discarded
+        DROP_INFO_FIRST  // INFO entries are discarded; WARN/ERROR evict queued INFO at the head, else wait
+    }
+
+    private static final int MAX_BATCH = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    // Wait before retrying a log file that failed to open
+    private static final long REOPEN_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final Set<AsyncLogAppender> OPEN = ConcurrentHashMap.newKeySet();
+    private static boolean hookRegistered; // guarded by AsyncLogAppender.class
+
+    private final Path logDir;
+    private final OverflowPolicy policy;
+
+    // Bounded MPMC ring buffer (sequence per slot)
+    private final int mask;
+    private final AtomicReferenceArray<LogEntry> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile Thread writer;
+    private volatile Consumer<LocalDate> flushListener;
+
+    // Writer-thread state only
+    private FileChannel channel;
+    private LocalDate channelDate;
+    private long reopenAtNanos;
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(64 * 1024);
+    private int bufferedEntries;
+
+    /** Creates an appender and starts its writer thread. */
+    public static AsyncLogAppender open(Path logDir, int capacity, OverflowPolicy policy) {
+        AsyncLogAppender appender = new AsyncLogAppender(logDir, capacity, policy);
+        registerShutdownHook();
+        OPEN.add(appender);
+        appender.start();
+        return appender;
+    }
+
+    private static synchronized void registerShutdownHook() {
+        if (hookRegistered) return;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (AsyncLogAppender appender : OPEN) appender.close();
+        }, "log-writer-shutdown"));
+        hookRegistered = true;
+    }
+
+    private AsyncLogAppender(Path logDir, int capacity, OverflowPolicy policy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2.");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.logDir = logDir;
+        this.policy = policy;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    private void start() {
+        Thread t = new Thread(this::drainLoop, "log-writer");
+        t.setDaemon(true);
+        writer = t;
+        t.start();
+    }
+
+    public void append(LogEntry entry) {
+        if (!running.get()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        while (!offer(entry)) {
+            switch (policy) {
+                case DROP_OLDEST:
+                    if (poll() != null) dropped.incrementAndGet();
+                    break;
+                case DROP_INFO_FIRST:
+                    if ("INFO".equals(entry.getLevel())) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                    if (pollIfInfo()) {
+                        dropped.incrementAndGet();
+                    } else {
+                        waitForSpace();
+                    }
+                    break;
+                default:
+                    waitForSpace();
+            }
+            if (!running.get()) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Called on the writer thread with the day of each batch that reached its
+     * file. It runs inline with the writer, so it must hand work off rather than block.
+     */
+    public void setFlushListener(Consumer<LocalDate> listener) {
+        this.flushListener = listener;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /** Stops accepting entries, flushes what is queued and closes the channel. */
+    @Override
+    public void close() {
+        if (!running.compareAndSet(true, false)) return;
+        OPEN.remove(this);
+        Thread t = writer;
+        LockSupport.unpark(t);
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitForSpace() {
+        LockSupport.unpark(writer);
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+    }
+
+    private boolean offer(LogEntry entry) {
+        while (true) {
+            long pos = tail.get();
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, entry);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false; // full
+            }
+        }
+    }
+
+    private LogEntry poll() {
+        while (true) {
+            long pos = head.get();
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    LogEntry entry = slots.getAndSet(index, null);
+                    sequences.set(index, pos + mask + 1);
+                    return entry;
+                }
+            } else if (diff < 0) {
+                return null; // empty
+            }
+        }
+    }
+
+    // Removes the oldest queued entry only if it is INFO
+    private boolean pollIfInfo() {
+        while (true) {
+            long pos = head.get();
+            int index = (int) pos & mask;
+            if (sequences.get(index) != pos + 1) return false; // empty, or head moved on
+            LogEntry entry = slots.get(index);
+            if (entry == null || !"INFO".equals(entry.getLevel())) return false;
+            // a won CAS means nobody else consumed pos, so the slot still holds entry
+            if (head.compareAndSet(pos, pos + 1)) {
+                slots.set(index, null);
+                sequences.set(index, pos + mask + 1);
+                return true;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            int drained = drainBatch();
+            if (drained == 0) {
+                if (!running.get() && size() == 0) break;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        closeChannel();
+    }
+
+    private int drainBatch() {
+        int count = 0;
+        LogEntry entry;
+        batchBuffer.clear();
+        LogEncoder encoder = LogEncoder.get();
+        while (count < MAX_BATCH && (entry = poll()) != null) {
+            LocalDate day = encoder.dateOf(entry.getTimestampMillis());
+            if (!day.equals(channelDate) || (channel == null && System.nanoTime() - reopenAtNanos >= 0)) {
+                flushBatch();
+                rollTo(day);
+            }
+            int needed = LogEncoder.maxEncodedLength(entry);
+            if (needed > batchBuffer.remaining()) {
+                flushBatch();
+                if (needed > batchBuffer.capacity()) {
+                    batchBuffer = ByteBuffer.allocate(needed);
+                }
+            }
+            encoder.encodeTo(entry, batchBuffer);
+            bufferedEntries++;
+            count++;
+        }
+        flushBatch();
+        return count;
+    }
+
+    // Entries only count as written once they reach the channel
+    private void flushBatch() {
+        batchBuffer.flip();
+        boolean ok = channel != null;
+        try {
+            while (ok && batchBuffer.hasRemaining()) {
+                channel.write(batchBuffer);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing log batch: " + e.getMessage());
+            ok = false;
+        }
+        (ok ? written : dropped).addAndGet(bufferedEntries);
+        Consumer<LocalDate> listener = flushListener;
+        if (ok && bufferedEntries > 0 && listener != null) listener.accept(channelDate);
+        bufferedEntries = 0;
+        batchBuffer.clear();
+    }
+
+    private void rollTo(LocalDate day) {
+        closeChannel();
+        try {
+            Files.createDirectories(logDir);
+            channel = FileChannel.open(logDir.resolve(day + ".txt"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channelDate = day;
+        } catch (IOException e) {
+            // keep the day so the next entries are dropped, not retried one by one
+            System.err.println("Failed to open log file for " + day + ": " + e.getMessage());
+            channel = null;
+            channelDate = day;
+            reopenAtNanos = System.nanoTime() + REOPEN_BACKOFF_NANOS;
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close log file: " + e.getMessage());
+        }
+        channel = null;
+        channelDate = null;
+    }
+}
@@ -0,0 +1,207 @@
+package Logging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Long-lived append-only FileChannel with group commit.
+ * Callers enqueue their record; whoever gets the flush lock becomes leader and
+ * writes every pending record in one batch (optionally followed by force),
+ * while the others wait until their own record has been written. A batch
+ * holds at most MAX_BATCH_RECORDS records so one leader cannot be kept
+ * writing indefinitely; the rest go to the next leader.
+ */
+public class GroupCommitChannel implements AutoCloseable {
+
+    public enum DurabilityMode {
+        FORCE_PER_BATCH, // fsync after every batch
+        OS_BUFFERED      // leave flushing to the OS page cache
+    }
+
+    static final int MAX_BATCH_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final DurabilityMode mode;
+    private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object monitor = new Object();
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(64 * 1024);
+    private volatile boolean closed;
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong forces = new AtomicLong();
+
+    public GroupCommitChannel(Path file, DurabilityMode mode) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.mode = mode;
+    }
+
+    /** Returns once the record has been written (and forced, in FORCE_PER_BATCH mode). */
+    public void append(byte[] record) throws IOException {
+        if (closed) {
+            throw new IOException("Group commit channel is closed");
+        }
+        Pending p = new Pending(record);
+        pending.offer(p);
+        while (!p.done) {
+            if (flushLock.tryLock()) {
+                try {
+                    if (!p.done) flushPending();
+                } finally {
+                    flushLock.unlock();
+                }
+                synchronized (monitor) {
+                    monitor.notifyAll();
+                }
+            } else {
+                synchronized (monitor) {
+                    while (!p.done && flushLock.isLocked()) {
+                        try {
+                            monitor.wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException("Interrupted while waiting for group commit", e);
+                        }
+                    }
+                }
+            }
+        }
+        if (p.error != null) throw p.error;
+    }
+
+    // Leader only
+    private void flushPending() {
+        if (closed) {
+            // records that raced close() get a clear error instead of ClosedChannelException
+            Pending p;
+            while ((p = pending.poll()) != null) {
+                p.error = new IOException("Group commit channel is closed");
+                p.done = true;
+            }
+            return;
+        }
+        int count = 0;
+        Pending[] batch = new Pending[16];
+        batchBuffer.clear();
+        IOException error = null;
+        Pending p;
+        while (count < MAX_BATCH_RECORDS && (p = pending.poll()) != null) {
+            if (count == batch.length) batch = Arrays.copyOf(batch, count * 2);
+            batch[count++] = p;
+            try {
+                if (p.record.length > batchBuffer.remaining()) {
+                    writeBuffer();
+                    if (p.record.length > batchBuffer.capacity()) {
+                        batchBuffer = ByteBuffer.allocate(p.record.length);
+                    }
+                }
+                batchBuffer.put(p.record);
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        try {
+            writeBuffer();
+            if (mode == DurabilityMode.FORCE_PER_BATCH && count > 0) {
+                channel.force(false);
+                forces.incrementAndGet();
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        if (count > 0) {
+            batches.incrementAndGet();
+            records.addAndGet(count);
+        }
+        for (int i = 0; i < count; i++) {
+            batch[i].error = error;
+            batch[i].done = true;
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        batchBuffer.flip();
+        while (batchBuffer.hasRemaining()) {
+            bytes.addAndGet(channel.write(batchBuffer));
+        }
+        batchBuffer.clear();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    public Metrics getMetrics() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        return new Metrics(records.get(), batches.get(), bytes.get(), forces.get(), records.get() / seconds);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            if (closed) return;
+            while (!pending.isEmpty()) flushPending();
+            closed = true;
+            channel.close();
+        } finally {
+            flushLock.unlock();
+        }
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    private static final class Pending {
+        final byte[] record;
+        volatile boolean done;
+        IOException error; // published by the write of done
+        Pending(byte[] record) { this.record = record; }
+    }
+
+    public static class Metrics {
+        private final long records;
+        private final long batches;
+        private final long bytes;
+        private final long forces;
+        private final double recordsPerSecond;
+
+        Metrics(long records, long batches, long bytes, long forces, double recordsPerSecond) {
+            this.records = records;
+            this.batches = batches;
+            this.bytes = bytes;
+            this.forces = forces;
+            this.recordsPerSecond = recordsPerSecond;
+        }
+
+        public long getRecords() { return records; }
+        public long getBatches() { return batches; }
+        public long getBytes() { return bytes; }
+        public long getForces() { return forces; }
+        public double getRecordsPerSecond() { return recordsPerSecond; }
+        public double getAverageBatchSize() { return batches == 0 ? 0 : (double) records / batches; }
+
+        @Override
+        public String toString() {
+            return String.format("records=%d batches=%d avgBatch=%.1f bytes=%d forces=%d rate=%.0f/s",
+                    records, batches, getAverageBatchSize(), bytes, forces, recordsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package Logging;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses daily log files into logs/archive/<date>.txt.gz.
+ * A date range is archived in parallel on a fork-join pool, each file is
+ * streamed through GZIP and its CRC32 recorded in logs/archive/manifest.csv.
+ * Today's file is never touched, so the live writer is not blocked. The
+ * LogQuery index of an archived day (logs/index/<date>.idx) is deleted with it.
+ * Archives stay readable through streaming decompression.
+ */
+public class LogArchiver {
+
+    private static final String MANIFEST_HEADER = "date,originalBytes,compressedBytes,crc32";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path logDir;
+    private final Path archiveDir;
+    private final Path manifestFile;
+    private final ForkJoinPool pool;
+
+    public LogArchiver(Path logDir) {
+        this(logDir, ForkJoinPool.commonPool());
+    }
+
+    public LogArchiver(Path logDir, ForkJoinPool pool) {
+        this.logDir = logDir;
+        this.archiveDir = logDir.resolve("archive");
+        this.manifestFile = archiveDir.resolve("manifest.csv");
+        this.pool = pool;
+    }
+
+    /** Archives every existing day in [from, to] except today; runs on the pool. */
+    public CompletableFuture<List<ArchiveEntry>> archiveRange(LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            if (d.isBefore(today) && Files.exists(logFile(d))) dates.add(d);
+        }
+        // A parallel stream started from a pool task forks onto that same pool
+        return CompletableFuture.supplyAsync(() -> dates.parallelStream()
+                .map(this::archiveQuietly)
+                .filter(e -> e != null)
+                .collect(Collectors.toList()), pool);
+    }
+
+    /** Archives a single past day on the calling thread; today's live file is refused. */
+    public ArchiveEntry archive(LocalDate date) throws IOException {
+        if (!date.isBefore(LocalDate.now())) {
+            // the appender still writes to this file; deleting it would lose every later entry
+            throw new IOException("Refusing to archive the live log file of " + date);
+        }
+        Path source = logFile(date);
+        Files.createDirectories(archiveDir);
+        Path target = archiveFile(date);
+        Path tmp = archiveDir.resolve(date + ".txt.gz.tmp");
+
+        CRC32 crc = new CRC32();
+        long originalBytes = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+                out.write(buffer, 0, n);
+                originalBytes += n;
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(source);
+        Files.deleteIfExists(indexFile(date)); // describes offsets of the file just removed
+
+        ArchiveEntry entry = new ArchiveEntry(date, originalBytes, Files.size(target), crc.getValue());
+        synchronized (this) {
+            Map<LocalDate, ArchiveEntry> manifest = readManifest();
+            manifest.put(date, entry);
+            writeManifest(manifest);
+        }
+        return entry;
+    }
+
+    private ArchiveEntry archiveQuietly(LocalDate date) {
+        try {
+            return archive(date);
+        } catch (IOException e) {
+            System.err.println("Failed to archive log " + date + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Deletes archives older than maxAgeDays, then the oldest remaining ones
+     * until the compressed total fits in maxBytes. Returns the removed days.
+     */
+    public synchronized List<LocalDate> enforceRetention(int maxAgeDays, long maxBytes) throws IOException {
+        Map<LocalDate, ArchiveEntry> manifest = readManifest();
+        List<LocalDate> removed = new ArrayList<>();
+        LocalDate cutoff = LocalDate.now().minusDays(maxAgeDays);
+        long total = 0;
+        for (ArchiveEntry e : manifest.values()) total += e.getCompressedBytes();
+
+        for (ArchiveEntry e : new ArrayList<>(manifest.values())) { // oldest first
+            if (e.getDate().isBefore(cutoff) || total > maxBytes) {
+                Files.deleteIfExists(archiveFile(e.getDate()));
+                manifest.remove(e.getDate());
+                total -= e.getCompressedBytes();
+                removed.add(e.getDate());
+            }
+        }
+        if (!removed.isEmpty()) writeManifest(manifest);
+        return removed;
+    }
+
+    /** Streams the decompressed archive of a day. */
+    public BufferedReader openArchive(LocalDate date) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archiveFile(date)), BUFFER_SIZE), StandardCharsets.UTF_8));
+    }
+
+    /** Same filters as LogQuery, evaluated while decompressing. */
+    public List<LogEntry> query(LocalDate date, LocalTime from, LocalTime to, LogLevel level, String component)
+            throws IOException {
+        List<LogEntry> result = new ArrayList<>();
+        try (BufferedReader reader = openArchive(date)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LogEntry e = LogQuery.parseLine(line);
+                if (e == null) continue;
+                LocalTime t = e.getTimestamp().toLocalTime().withNano(0);
+                if (from != null && t.isBefore(from)) continue;
+                if (to != null && t.isAfter(to)) continue;
+                if (level != null && !level.getLabel().equals(e.getLevel())) continue;
+                if (component != null && !component.equals(e.getComponent())) continue;
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    /** Recomputes the CRC32 of an archive and compares it with the manifest. */
+    public boolean verify(LocalDate date) throws IOException {
+        ArchiveEntry expected;
+        synchronized (this) {
+            expected = readManifest().get(date);
+        }
+        if (expected == null || !Files.exists(archiveFile(date))) return false;
+        CRC32 crc = new CRC32();
+        try (InputStream in = new CheckedInputStream(
+                new GZIPInputStream(Files.newInputStream(archiveFile(date)), BUFFER_SIZE), crc)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (in.read(buffer) > 0) {
+                // checksum updated by the stream
+            }
+        }
+        return crc.getValue() == expected.getCrc32();
+    }
+
+    public synchronized Map<LocalDate, ArchiveEntry> getManifest() throws IOException {
+        return readManifest();
+    }
+
+    private Map<LocalDate, ArchiveEntry> readManifest() throws IOException {
+        Map<LocalDate, ArchiveEntry> manifest = new TreeMap<>();
+        if (!Files.exists(manifestFile)) return manifest;
+        for (String line : Files.readAllLines(manifestFile, StandardCharsets.UTF_8)) {
+            if (line.trim().isEmpty() || line.startsWith("date")) continue;
+            String[] parts = line.split(",");
+            LocalDate date = LocalDate.parse(parts[0]);
+            manifest.put(date, new ArchiveEntry(date, Long.parseLong(parts[1]),
+                    Long.parseLong(parts[2]), Long.parseLong(parts[3])));
+        }
+        return manifest;
+    }
+
+    private void writeManifest(Map<LocalDate, ArchiveEntry> manifest) throws IOException {
+        Files.createDirectories(archiveDir);
+        List<String> lines = new ArrayList<>();
+        lines.add(MANIFEST_HEADER);
+        for (ArchiveEntry e : manifest.values()) {
+            lines.add(e.getDate() + "," + e.getOriginalBytes() + "," + e.getCompressedBytes() + "," + e.getCrc32());
+        }
+        Path tmp = archiveDir.resolve("manifest.csv.tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path logFile(LocalDate date) {
+        return logDir.resolve(date + ".txt");
+    }
+
+    private Path indexFile(LocalDate date) {
+        return logDir.resolve("index").resolve(date + ".idx");
+    }
+
+    private Path archiveFile(LocalDate date) {
+        return archiveDir.resolve(date + ".txt.gz");
+    }
+
+    public static class ArchiveEntry {
+        private final LocalDate date;
+        private final long originalBytes;
+        private final long compressedBytes;
+        private final long crc32;
+
+        public ArchiveEntry(LocalDate date, long originalBytes, long compressedBytes, long crc32) {
+            this.date = date;
+            this.originalBytes = originalBytes;
+            this.compressedBytes = compressedBytes;
+            this.crc32 = crc32;
+        }
+
+        public LocalDate getDate() { return date; }
+        public long getOriginalBytes() { return originalBytes; }
+        public long getCompressedBytes() { return compressedBytes; }
+        public long getCrc32() { return crc32; }
+    }
+}
@@ -0,0 +1,160 @@
+package Logging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-local encoder that writes a LogEntry as
+ * "[yyyy-MM-ddTHH:mm:ss.SSS] [LEVEL] [Component] message" straight into bytes.
+ * The date/time prefix is formatted once per second and level/component names
+ * are kept as interned byte arrays, so the hot path only copies bytes.
+ */
+public final class LogEncoder {
+
+    private static final ThreadLocal<LogEncoder> LOCAL = ThreadLocal.withInitial(LogEncoder::new);
+
+    // Component names are few; cap the cache so arbitrary names cannot grow it forever
+    private static final int MAX_INTERNED = 4096;
+    private static final Map<String, byte[]> INTERNED = new ConcurrentHashMap<>();
+
+    private static final byte[] SEPARATOR = "] [".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MESSAGE_SEPARATOR = "] ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEW_LINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private long cachedSecond = Long.MIN_VALUE;
+    private final byte[] secondPrefix = new byte[20]; // "[yyyy-MM-ddTHH:mm:ss"
+    private LocalDate cachedDate;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    private LogEncoder() {}
+
+    public static LogEncoder get() {
+        return LOCAL.get();
+    }
+
+    /** Encodes one line (with line separator) into the pooled buffer, returned ready for reading. */
+    public ByteBuffer encode(LogEntry entry) {
+        int needed = maxEncodedLength(entry);
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        encodeTo(entry, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    /** Caller must make sure at least maxEncodedLength(entry) bytes remain in out. */
+    public void encodeTo(LogEntry entry, ByteBuffer out) {
+        writeTimestamp(entry.getTimestampMillis(), out);
+        out.put(SEPARATOR);
+        out.put(intern(entry.getLevel()));
+        out.put(SEPARATOR);
+        out.put(intern(entry.getComponent()));
+        out.put(MESSAGE_SEPARATOR);
+        writeUtf8(String.valueOf(entry.getMessage()), out);
+        out.put(NEW_LINE);
+    }
+
+    public String format(LogEntry entry) {
+        ByteBuffer line = encode(entry);
+        return new String(line.array(), 0, line.limit() - NEW_LINE.length, StandardCharsets.UTF_8);
+    }
+
+    public static int maxEncodedLength(LogEntry entry) {
+        String message = String.valueOf(entry.getMessage());
+        return 24 + 3 + intern(entry.getLevel()).length + 3 + intern(entry.getComponent()).length
+                + 2 + message.length() * 3 + NEW_LINE.length;
+    }
+
+    /** Local date of the timestamp, cached alongside the per-second prefix. */
+    public LocalDate dateOf(long timestampMillis) {
+        refreshSecond(Math.floorDiv(timestampMillis, 1000L));
+        return cachedDate;
+    }
+
+    private static byte[] intern(String value) {
+        String key = String.valueOf(value);
+        byte[] bytes = INTERNED.get(key);
+        if (bytes == null) {
+            bytes = key.getBytes(StandardCharsets.UTF_8);
+            if (INTERNED.size() < MAX_INTERNED) {
+                INTERNED.putIfAbsent(key, bytes);
+            }
+        }
+        return bytes;
+    }
+
+    private void writeTimestamp(long millis, ByteBuffer out) {
+        refreshSecond(Math.floorDiv(millis, 1000L));
+        out.put(secondPrefix);
+        int ms = (int) Math.floorMod(millis, 1000L);
+        out.put((byte) '.');
+        out.put((byte) ('0' + ms / 100));
+        out.put((byte) ('0' + (ms / 10) % 10));
+        out.put((byte) ('0' + ms % 10));
+    }
+
+    private void refreshSecond(long epochSecond) {
+        if (epochSecond == cachedSecond) return;
+        ZoneOffset offset = zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond));
+        LocalDateTime t = LocalDateTime.ofEpochSecond(epochSecond, 0, offset);
+        int i = 0;
+        secondPrefix[i++] = '[';
+        i = putDigits(secondPrefix, i, t.getYear(), 4);
+        secondPrefix[i++] = '-';
+        i = putDigits(secondPrefix, i, t.getMonthValue(), 2);
+        secondPrefix[i++] = '-';
+        i = putDigits(secondPrefix, i, t.getDayOfMonth(), 2);
+        secondPrefix[i++] = 'T';
+        i = putDigits(secondPrefix, i, t.getHour(), 2);
+        secondPrefix[i++] = ':';
+        i = putDigits(secondPrefix, i, t.getMinute(), 2);
+        secondPrefix[i++] = ':';
+        putDigits(secondPrefix, i, t.getSecond(), 2);
+        cachedDate = t.toLocalDate();
+        cachedSecond = epochSecond;
+    }
+
+    private static int putDigits(byte[] target, int pos, int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            target[pos + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static void writeUtf8(String s, ByteBuffer out) {
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
@@ -1,38 +1,38 @@
 package Logging;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 public class LogEntry {
-	private LocalDateTime timestamp;
-    private String level;
-    private String component;
-    private String message;
+	private final long timestampMillis;
+    private final String level;
+    private final String component;
+    private final String message;
     
     //Constructor
     public LogEntry(String level, String component, String message) {
-    	this.timestamp = LocalDateTime.now();
+    	this(System.currentTimeMillis(), level, component, message);
+    }
+
+    public LogEntry(long timestampMillis, String level, String component, String message) {
+        this.timestampMillis = timestampMillis;
         this.level = level;
         this.component = component;
         this.message = message;
     }
     
     // Getters
-    public LocalDateTime getTimestamp() {return timestamp;}
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
+    }
+    public long getTimestampMillis() { return timestampMillis; }
     public String getLevel() { return level; }
     public String getComponent() { return component; }
     public String getMessage() { return message; }
 
     @Override
     public String toString() {
-        return String.format("[%s] [%s] [%s] %s",
-                timestamp, level, component, message);
+        return LogEncoder.get().format(this);
     }
-
-
-	
-	
-		
-
-
-	
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package Logging;
+
+public enum LogLevel {
+    INFO("INFO"),
+    WARN("WARN"),
+    ERROR("ERROR"),
+    OFF("OFF");
+
+    private final String label;
+
+    LogLevel(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isAtLeast(LogLevel threshold) {
+        return ordinal() >= threshold.ordinal();
+    }
+}
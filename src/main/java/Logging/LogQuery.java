@@ -0,0 +1,376 @@
+package Logging;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query service over the daily log files (logs/yyyy-MM-dd.txt).
+ * Files are memory-mapped and described by a sparse index of fixed-size line
+ * blocks (time range, level bitmask, component bloom bits) kept under
+ * logs/index. Queries only decode blocks whose summary can match.
+ * The index is extended incrementally: each refresh only scans bytes the
+ * logger appended since the last one. Once follow() attaches the query to
+ * an appender, a background indexer refreshes a day after every batch the
+ * writer flushes, so indexing keeps pace with SystemLogger; a query still
+ * refreshes first to cover the newest bytes. A refresh publishes an
+ * immutable block list and one mapping of the indexed bytes, so queries never
+ * see a list being modified and do not map the file again per block.
+ */
+public class LogQuery implements AutoCloseable {
+
+    private static final int BLOCK_LINES = 128;
+    private static final int INDEX_MAGIC = 0x4C4F4731; // "LOG1"
+    private static final int OTHER_LEVEL_BIT = 1 << 31;
+
+    private final Path logDir;
+    private final Path indexDir;
+    private final Map<LocalDate, FileIndex> indexes = new ConcurrentHashMap<>();
+    // Days with a background refresh queued but not yet started
+    private final Set<LocalDate> pending = ConcurrentHashMap.newKeySet();
+    private volatile ExecutorService indexer;
+
+    public LogQuery() {
+        this(Paths.get("logs"));
+    }
+
+    public LogQuery(Path logDir) {
+        this.logDir = logDir;
+        this.indexDir = logDir.resolve("index");
+    }
+
+    /** Indexes each day in the background as the appender flushes entries into it. */
+    public synchronized void follow(AsyncLogAppender appender) {
+        if (indexer == null) {
+            indexer = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "log-indexer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        appender.setFlushListener(this::scheduleRefresh);
+    }
+
+    // Runs on the writer thread: queue at most one refresh per day
+    private void scheduleRefresh(LocalDate date) {
+        ExecutorService executor = indexer;
+        if (executor == null || !pending.add(date)) return;
+        try {
+            executor.execute(() -> {
+                pending.remove(date);
+                try {
+                    refresh(date);
+                } catch (IOException e) {
+                    System.err.println("Failed to index log " + date + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(date); // closed
+        }
+    }
+
+    /** Stops the background indexer; queries keep refreshing on demand. */
+    @Override
+    public void close() {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = indexer;
+            indexer = null;
+        }
+        if (executor == null) return;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns entries of the given day between from and to (inclusive, second precision).
+     * level and component are optional filters (null matches everything).
+     */
+    public List<LogEntry> query(LocalDate date, LocalTime from, LocalTime to, LogLevel level, String component)
+            throws IOException {
+        FileIndex index = refresh(date);
+        List<LogEntry> result = new ArrayList<>();
+        if (index == null) return result;
+        View view = index.view;
+        if (view.blocks.isEmpty()) return result;
+
+        int fromSecond = from == null ? 0 : from.toSecondOfDay();
+        int toSecond = to == null ? 86_399 : to.toSecondOfDay();
+        int levelBit = level == null ? -1 : levelBit(level.getLabel());
+        long componentBit = component == null ? -1L : componentBit(component);
+
+        for (Block block : view.blocks) {
+            if (block.lastSecond < fromSecond || block.firstSecond > toSecond) continue;
+            if ((block.levelMask & levelBit) == 0) continue;
+            if ((block.componentMask & componentBit) == 0) continue;
+
+            MappedByteBuffer region = view.mapped.slice((int) block.startOffset,
+                    (int) (block.endOffset - block.startOffset));
+            scanBlock(region, fromSecond, toSecond, level, component, result);
+        }
+        return result;
+    }
+
+    /** Brings the index of the given day up to date with the file and persists it. */
+    public synchronized FileIndex refresh(LocalDate date) throws IOException {
+        Path file = logFile(date);
+        if (!Files.exists(file)) return null;
+
+        FileIndex index = indexes.computeIfAbsent(date, this::loadIndex);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < index.indexedUpTo) {
+                index = new FileIndex(); // file was truncated or replaced
+                indexes.put(date, index);
+            }
+            if (size == index.indexedUpTo && index.view.mapped != null) return index;
+
+            // A partial trailing block is re-scanned so it can be completed
+            long start = index.indexedUpTo;
+            if (!index.blocks.isEmpty() && index.blocks.get(index.blocks.size() - 1).lines < BLOCK_LINES) {
+                start = index.blocks.remove(index.blocks.size() - 1).startOffset;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, start, size - start);
+            index.indexedUpTo = start + indexBytes(map, start, index.blocks);
+            if (index.indexedUpTo > Integer.MAX_VALUE) {
+                throw new IOException("Log file too large to query: " + file);
+            }
+            index.view = new View(List.copyOf(index.blocks),
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, index.indexedUpTo));
+        }
+        saveIndex(date, index);
+        return index;
+    }
+
+    // Indexes complete lines only; returns the number of bytes consumed
+    private long indexBytes(MappedByteBuffer map, long baseOffset, List<Block> blocks) {
+        Block current = null;
+        int lineStart = 0;
+        int limit = map.limit();
+        int lastSecond = 0;
+        for (int i = 0; i < limit; i++) {
+            if (map.get(i) != '\n') continue;
+            if (current == null) {
+                current = new Block();
+                current.startOffset = baseOffset + lineStart;
+                current.firstSecond = Integer.MAX_VALUE;
+            }
+            int second = parseSecond(map, lineStart, i);
+            if (second >= 0) lastSecond = second;
+            current.firstSecond = Math.min(current.firstSecond, lastSecond);
+            current.lastSecond = Math.max(current.lastSecond, lastSecond);
+            String level = field(map, lineStart, i, 0);
+            String component = field(map, lineStart, i, 1);
+            current.levelMask |= level == null ? OTHER_LEVEL_BIT : levelBit(level);
+            if (component != null) current.componentMask |= componentBit(component);
+            current.lines++;
+            current.endOffset = baseOffset + i + 1;
+            lineStart = i + 1;
+
+            if (current.lines == BLOCK_LINES) {
+                blocks.add(current);
+                current = null;
+            }
+        }
+        if (current != null) blocks.add(current);
+        return lineStart;
+    }
+
+    private void scanBlock(MappedByteBuffer region, int fromSecond, int toSecond, LogLevel level,
+                           String component, List<LogEntry> result) {
+        int lineStart = 0;
+        int limit = region.limit();
+        for (int i = 0; i < limit; i++) {
+            if (region.get(i) != '\n') continue;
+            int end = i > lineStart && region.get(i - 1) == '\r' ? i - 1 : i;
+            int second = parseSecond(region, lineStart, end);
+            if (second >= fromSecond && second <= toSecond) {
+                LogEntry entry = parseLine(decode(region, lineStart, end));
+                if (entry != null
+                        && (level == null || level.getLabel().equals(entry.getLevel()))
+                        && (component == null || component.equals(entry.getComponent()))) {
+                    result.add(entry);
+                }
+            }
+            lineStart = i + 1;
+        }
+    }
+
+    /** Parses "[timestamp] [LEVEL] [Component] message"; returns null for other lines. */
+    static LogEntry parseLine(String line) {
+        int tsEnd = line.indexOf("] [");
+        int levelEnd = tsEnd < 0 ? -1 : line.indexOf("] [", tsEnd + 3);
+        int compEnd = levelEnd < 0 ? -1 : line.indexOf("] ", levelEnd + 3);
+        if (!line.startsWith("[") || compEnd < 0) return null;
+        try {
+            LocalDateTime ts = LocalDateTime.parse(line.substring(1, tsEnd));
+            long millis = ts.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return new LogEntry(millis, line.substring(tsEnd + 3, levelEnd),
+                    line.substring(levelEnd + 3, compEnd), line.substring(compEnd + 2));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // "[yyyy-MM-ddTHH:mm:ss..." -> second of day, -1 if the line has no timestamp
+    private static int parseSecond(MappedByteBuffer buf, int start, int end) {
+        if (end - start < 20 || buf.get(start) != '[' || buf.get(start + 11) != 'T') return -1;
+        int h = digits(buf, start + 12), m = digits(buf, start + 15), s = digits(buf, start + 18);
+        if (h < 0 || m < 0 || s < 0) return -1;
+        return h * 3600 + m * 60 + s;
+    }
+
+    private static int digits(MappedByteBuffer buf, int pos) {
+        int a = buf.get(pos) - '0', b = buf.get(pos + 1) - '0';
+        if (a < 0 || a > 9 || b < 0 || b > 9) return -1;
+        return a * 10 + b;
+    }
+
+    // n-th bracketed field after the timestamp (0 = level, 1 = component)
+    private static String field(MappedByteBuffer buf, int start, int end, int n) {
+        int pos = start;
+        for (int k = 0; k <= n; k++) {
+            pos = indexOf(buf, pos, end, (byte) ']');
+            if (pos < 0 || pos + 2 >= end || buf.get(pos + 2) != '[') return null;
+            pos += 2;
+        }
+        int close = indexOf(buf, pos, end, (byte) ']');
+        return close < 0 ? null : decode(buf, pos + 1, close);
+    }
+
+    private static int indexOf(MappedByteBuffer buf, int from, int end, byte b) {
+        for (int i = from; i < end; i++) {
+            if (buf.get(i) == b) return i;
+        }
+        return -1;
+    }
+
+    private static String decode(MappedByteBuffer buf, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(start + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int levelBit(String level) {
+        for (LogLevel l : LogLevel.values()) {
+            if (l.getLabel().equals(level)) return 1 << l.ordinal();
+        }
+        return OTHER_LEVEL_BIT;
+    }
+
+    private static long componentBit(String component) {
+        return 1L << (component.hashCode() & 63);
+    }
+
+    private Path logFile(LocalDate date) {
+        return logDir.resolve(date + ".txt");
+    }
+
+    private Path indexFile(LocalDate date) {
+        return indexDir.resolve(date + ".idx");
+    }
+
+    private FileIndex loadIndex(LocalDate date) {
+        FileIndex index = new FileIndex();
+        Path file = indexFile(date);
+        if (!Files.exists(file)) return index;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != INDEX_MAGIC) return index;
+            long indexedUpTo = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Block b = new Block();
+                b.startOffset = in.readLong();
+                b.endOffset = in.readLong();
+                b.firstSecond = in.readInt();
+                b.lastSecond = in.readInt();
+                b.levelMask = in.readInt();
+                b.componentMask = in.readLong();
+                b.lines = in.readInt();
+                index.blocks.add(b);
+            }
+            index.indexedUpTo = indexedUpTo;
+        } catch (IOException e) {
+            return new FileIndex(); // corrupt index, rebuild from the log
+        }
+        return index;
+    }
+
+    private void saveIndex(LocalDate date, FileIndex index) throws IOException {
+        Files.createDirectories(indexDir);
+        Path tmp = indexDir.resolve(date + ".idx.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeLong(index.indexedUpTo);
+            out.writeInt(index.blocks.size());
+            for (Block b : index.blocks) {
+                out.writeLong(b.startOffset);
+                out.writeLong(b.endOffset);
+                out.writeInt(b.firstSecond);
+                out.writeInt(b.lastSecond);
+                out.writeInt(b.levelMask);
+                out.writeLong(b.componentMask);
+                out.writeInt(b.lines);
+            }
+        }
+        Files.move(tmp, indexFile(date), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static class FileIndex {
+        // mutated only inside refresh(); queries read the published view
+        private final List<Block> blocks = new ArrayList<>();
+        private long indexedUpTo;
+        private volatile View view = new View(List.of(), null);
+
+        public int getBlockCount() { return view.blocks.size(); }
+        public long getIndexedUpTo() { return indexedUpTo; }
+    }
+
+    // Immutable blocks plus a read-only mapping of every indexed byte
+    private static final class View {
+        final List<Block> blocks;
+        final MappedByteBuffer mapped;
+
+        View(List<Block> blocks, MappedByteBuffer mapped) {
+            this.blocks = blocks;
+            this.mapped = mapped;
+        }
+    }
+
+    private static class Block {
+        long startOffset;
+        long endOffset;
+        int firstSecond;
+        int lastSecond;
+        int levelMask;
+        long componentMask;
+        int lines;
+    }
+}
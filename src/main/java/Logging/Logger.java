@@ -1,6 +1,7 @@
 package Logging;
 
 import java.time.LocalDate;
+import java.util.function.Supplier;
 
 public interface Logger {
 	
@@ -8,6 +9,20 @@ public interface Logger {
     void logInfo(String component, String message);
     void logWarning(String component, String message);
     void logError(String component, String message);
+    boolean isEnabled(LogLevel level);
+
+    // Build the message only when the level is enabled; for per-task and per-move logging
+    default void logInfo(String component, Supplier<String> message) {
+        if (isEnabled(LogLevel.INFO)) logInfo(component, message.get());
+    }
+
+    default void logWarning(String component, Supplier<String> message) {
+        if (isEnabled(LogLevel.WARN)) logWarning(component, message.get());
+    }
+
+    default void logError(String component, Supplier<String> message) {
+        if (isEnabled(LogLevel.ERROR)) logError(component, message.get());
+    }
     
     boolean moveLogFile(LocalDate date, String targetDirectory);
     boolean deleteLogFile(LocalDate date);
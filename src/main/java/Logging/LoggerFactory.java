@@ -0,0 +1,67 @@
+package Logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry of loggers.
+ * Hands out one cached SystemLogger per component so every component shares
+ * the same sink (synchronous file append or one AsyncLogAppender) and the log
+ * directory is only checked once. Each component has its own level threshold;
+ * calls below the threshold return before a LogEntry is built.
+ */
+public final class LoggerFactory {
+
+    private static final Map<String, SystemLogger> LOGGERS = new ConcurrentHashMap<>();
+    private static final Map<String, LogLevel> LEVELS = new ConcurrentHashMap<>();
+
+    private static volatile LogLevel defaultLevel = LogLevel.INFO;
+    private static volatile AsyncLogAppender sharedAppender;
+
+    private LoggerFactory() {}
+
+    public static Logger getLogger(String component) {
+        return LOGGERS.computeIfAbsent(component, LoggerFactory::create);
+    }
+
+    private static SystemLogger create(String component) {
+        SystemLogger logger = new SystemLogger(sharedAppender);
+        logger.setLevel(LEVELS.getOrDefault(component, defaultLevel));
+        return logger;
+    }
+
+    public static void setLevel(String component, LogLevel level) {
+        LEVELS.put(component, level);
+        SystemLogger logger = LOGGERS.get(component);
+        if (logger != null) logger.setLevel(level);
+    }
+
+    public static void setDefaultLevel(LogLevel level) {
+        defaultLevel = level;
+        for (Map.Entry<String, SystemLogger> e : LOGGERS.entrySet()) {
+            if (!LEVELS.containsKey(e.getKey())) e.getValue().setLevel(level);
+        }
+    }
+
+    public static LogLevel getLevel(String component) {
+        return LEVELS.getOrDefault(component, defaultLevel);
+    }
+
+    // Switches every cached and future logger to one shared async appender
+    public static synchronized AsyncLogAppender enableAsync(int capacity, AsyncLogAppender.OverflowPolicy policy) {
+        if (sharedAppender == null) {
+            sharedAppender = SystemLogger.newAsyncAppender(capacity, policy);
+            for (SystemLogger logger : LOGGERS.values()) logger.setAppender(sharedAppender);
+        }
+        return sharedAppender;
+    }
+
+    // Flushes the shared appender and falls back to synchronous writes
+    public static synchronized void shutdown() {
+        AsyncLogAppender appender = sharedAppender;
+        if (appender == null) return;
+        sharedAppender = null;
+        for (SystemLogger logger : LOGGERS.values()) logger.setAppender(null);
+        appender.close();
+    }
+}
@@ -1,13 +1,41 @@
 package Logging;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class OrderLogger {
 
-    private static final String LOG_FILE = "logs/order_management.log";
+    private static final Path LOG_FILE = Paths.get("logs/order_management.log");
+
+    // One group-commit channel per file, shared by every OrderLogger writing to it;
+    // all loggers of a file must ask for the same durability mode
+    private static final Map<Path, GroupCommitChannel> SINKS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final GroupCommitChannel.DurabilityMode mode;
+
+    public OrderLogger() {
+        this(LOG_FILE, GroupCommitChannel.DurabilityMode.OS_BUFFERED);
+    }
+
+    public OrderLogger(Path file, GroupCommitChannel.DurabilityMode mode) {
+        this.file = file.toAbsolutePath().normalize();
+        this.mode = mode;
+        GroupCommitChannel existing = SINKS.get(this.file);
+        if (existing != null) checkMode(existing);
+    }
+
+    private void checkMode(GroupCommitChannel sink) {
+        if (sink.getMode() != mode) {
+            throw new IllegalArgumentException("Order log " + file + " is already open with " + sink.getMode()
+                    + ", cannot use " + mode);
+        }
+    }
 
     public void logInfo(String message) {
         log("INFO", message);
@@ -21,11 +49,50 @@ public class OrderLogger {
         log("ERROR", message);
     }
 
-    private synchronized void log(String level, String message) {
-        try (PrintWriter out = new PrintWriter(new FileWriter(LOG_FILE, true))) {
-            out.println(LocalDateTime.now() + " [" + level + "] " + message);
+    public GroupCommitChannel.Metrics getMetrics() {
+        GroupCommitChannel sink = SINKS.get(file);
+        return sink == null ? new GroupCommitChannel.Metrics(0, 0, 0, 0, 0) : sink.getMetrics();
+    }
+
+    // Closes the shared sink of this logger's file; the next log call reopens it
+    public void close() {
+        GroupCommitChannel sink = SINKS.remove(file);
+        if (sink == null) return;
+        try {
+            sink.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    private void log(String level, String message) {
+        String line = LocalDateTime.now() + " [" + level + "] " + message + System.lineSeparator();
+        byte[] record = line.getBytes(StandardCharsets.UTF_8);
+        try {
+            GroupCommitChannel sink = sink();
+            try {
+                sink.append(record);
+            } catch (IOException e) {
+                if (!sink.isClosed()) throw e;
+                sink().append(record); // raced close(); the next sink reopens the file
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private GroupCommitChannel sink() throws IOException {
+        GroupCommitChannel sink = SINKS.get(file);
+        if (sink == null || sink.isClosed()) {
+            synchronized (SINKS) {
+                sink = SINKS.get(file);
+                if (sink == null || sink.isClosed()) {
+                    sink = new GroupCommitChannel(file, mode);
+                    SINKS.put(file, sink);
+                }
+            }
+        }
+        checkMode(sink);
+        return sink;
+    }
 }
@@ -1,55 +1,105 @@
 package Logging;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.*;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class SystemLogger implements Logger {
 	
     private static final Path LOG_DIR = Paths.get("logs");
+    private static final LogArchiver ARCHIVER = new LogArchiver(LOG_DIR);
+    private static volatile boolean logDirReady;
+
+    // null -> synchronous append per entry
+    private volatile AsyncLogAppender appender;
+    private volatile LogLevel threshold = LogLevel.INFO;
     
     public SystemLogger() {
-        try {
-            Files.createDirectories(LOG_DIR);
-        } catch (IOException e) {
-            System.err.println("Failed to initialize log directory: " + e.getMessage());
+        this(null);
+    }
+
+    // Entries are handed to the appender's writer thread instead of written inline
+    public SystemLogger(AsyncLogAppender appender) {
+        this.appender = appender;
+        ensureLogDir();
+    }
+
+    // Directory is checked once per process, not once per logger
+    static void ensureLogDir() {
+        if (logDirReady) return;
+        synchronized (SystemLogger.class) {
+            if (logDirReady) return;
+            try {
+                Files.createDirectories(LOG_DIR);
+                logDirReady = true;
+            } catch (IOException e) {
+                System.err.println("Failed to initialize log directory: " + e.getMessage());
+            }
         }
     }
 
+    void setAppender(AsyncLogAppender appender) {
+        this.appender = appender;
+    }
+
+    public void setLevel(LogLevel threshold) {
+        this.threshold = threshold;
+    }
+
+    public LogLevel getLevel() {
+        return threshold;
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level) {
+        return level.isAtLeast(threshold) && level != LogLevel.OFF;
+    }
+
     private void writeEntry(LogEntry entry, LocalDate date) {
         Path file = LOG_DIR.resolve(date + ".txt");
-        String line = entry.toString();
-        try (BufferedWriter writer = Files.newBufferedWriter(
-                file, StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
-            writer.write(line);
-            writer.newLine();
+        ByteBuffer line = LogEncoder.get().encode(entry);
+        try (OutputStream out = Files.newOutputStream(
+                file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(line.array(), 0, line.limit());
         } catch (IOException e) {
             System.err.println("Error writing log entry: " + e.getMessage());
         }
     }
     
     
-    private void log(String level, String component, String message) {
-        writeEntry(new LogEntry(level, component, message), LocalDate.now());
+    private void log(LogLevel level, String component, String message) {
+        if (!isEnabled(level)) return;
+        LogEntry entry = new LogEntry(level.getLabel(), component, message);
+        AsyncLogAppender appender = this.appender;
+        if (appender != null) {
+            appender.append(entry);
+        } else {
+            writeEntry(entry, LogEncoder.get().dateOf(entry.getTimestampMillis()));
+        }
+    }
+
+    public static AsyncLogAppender newAsyncAppender(int capacity, AsyncLogAppender.OverflowPolicy policy) {
+        return AsyncLogAppender.open(LOG_DIR, capacity, policy);
     }
 
     
     @Override
     public void logInfo(String component, String message) {
-        log("INFO", component, message);
+        log(LogLevel.INFO, component, message);
     }
 
     @Override
     public void logWarning(String component, String message) {
-        log("WARN", component, message);
+        log(LogLevel.WARN, component, message);
     }
 
     @Override
     public void logError(String component, String message) {
-        log("ERROR", component, message);
+        log(LogLevel.ERROR, component, message);
     }
     
     
@@ -79,7 +129,17 @@ public class SystemLogger implements Logger {
 
     @Override
     public boolean archiveLogFile(LocalDate date) {
-        return moveLogFile(date, "logs/archive");
+        try {
+            ARCHIVER.archive(date);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Compresses [from, to] in parallel without blocking the caller or the live log file
+    public CompletableFuture<List<LogArchiver.ArchiveEntry>> archiveLogFiles(LocalDate from, LocalDate to) {
+        return ARCHIVER.archiveRange(from, to);
     }
     
     
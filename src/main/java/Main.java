@@ -2,11 +2,14 @@ import java.io.IOException;
 import javax.swing.SwingUtilities;
 
 import HMI.HMI;
+import Logging.AsyncLogAppender;
+import Logging.LoggerFactory;
 
 public class Main {
     
 
 	public static void main(String[] args) {
+		LoggerFactory.enableAsync(8192, AsyncLogAppender.OverflowPolicy.DROP_INFO_FIRST);
         SwingUtilities.invokeLater(() -> {
 			try {
 				new HMI().setVisible(true);
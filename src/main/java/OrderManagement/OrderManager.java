@@ -3,18 +3,19 @@ package OrderManagement;
 import StorageManagement.*;
 import Exceptions.StorageException;
 import java.util.*;
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
 public class OrderManager {
 
     private List<Order> orderList;
     private StorageManager storageManager;
-    private SystemLogger logger;
+    private Logger logger;
 
     public OrderManager(StorageManager storageManager) {
         this.storageManager = storageManager;
         this.orderList = new ArrayList<>();
-        this.logger = new SystemLogger();
+        this.logger = LoggerFactory.getLogger("OrderManager");
     }
 
     public void createOrder(String id, Medicine medicine, int quantity) {
@@ -0,0 +1,107 @@
+package StorageManagement;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders storage locations by free capacity.
+ * Each location appears once, keyed by the free capacity it had when it was
+ * last updated; update() is O(log n) and must be called after every change
+ * to a location's load. Updates of one location are atomic (serialised on its
+ * map entry), so callers need no lock of their own.
+ */
+public class CapacityIndex {
+
+    private final NavigableSet<Entry> byFree = new ConcurrentSkipListSet<>();
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final AtomicLong totalFree = new AtomicLong();
+
+    /** Re-keys the location with its current free capacity. */
+    public void update(StorageLocation location) {
+        // reading the load inside compute() means the last update to finish sees the latest value
+        current.compute(location.getId(), (id, previous) -> {
+            Entry next = new Entry(location, location.getFreeCapacity());
+            if (previous != null) byFree.remove(previous);
+            byFree.add(next);
+            totalFree.addAndGet(next.free - (previous == null ? 0 : previous.free));
+            return next;
+        });
+    }
+
+    public void remove(StorageLocation location) {
+        current.computeIfPresent(location.getId(), (id, previous) -> {
+            byFree.remove(previous);
+            totalFree.addAndGet(-previous.free);
+            return null;
+        });
+    }
+
+    /** Up to k locations with the most free capacity, emptiest first. */
+    public List<StorageLocation> emptiest(int k) {
+        return take(byFree.descendingIterator(), k);
+    }
+
+    /** Up to k locations with the least free capacity, fullest first. */
+    public List<StorageLocation> fullest(int k) {
+        return take(byFree.iterator(), k);
+    }
+
+    /** The location with the least free capacity that still fits amount, or null. */
+    public StorageLocation bestFit(int amount) {
+        Entry e = byFree.ceiling(new Entry(null, amount));
+        return e == null ? null : e.location;
+    }
+
+    /** The location with the most free capacity, or null when the index is empty. */
+    public StorageLocation mostFree() {
+        Iterator<Entry> it = byFree.descendingIterator();
+        Entry e = it.hasNext() ? it.next() : null;
+        return e == null || e.free <= 0 ? null : e.location;
+    }
+
+    public boolean contains(StorageLocation location) {
+        return current.containsKey(location.getId());
+    }
+
+    // Sum of free capacity over all indexed locations
+    public long getTotalFree() {
+        return totalFree.get();
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    // k <= 0 asks for nothing, so the list is empty
+    private static List<StorageLocation> take(Iterator<Entry> it, int k) {
+        List<StorageLocation> result = new ArrayList<>(Math.max(0, Math.min(k, 64)));
+        while (result.size() < k && it.hasNext()) result.add(it.next().location);
+        return result;
+    }
+
+    // Ordered by free capacity, then id; a null location sorts before any id
+    private static final class Entry implements Comparable<Entry> {
+        final StorageLocation location;
+        final int free;
+
+        Entry(StorageLocation location, int free) {
+            this.location = location;
+            this.free = free;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int c = Integer.compare(free, other.free);
+            if (c != 0) return c;
+            if (location == null) return other.location == null ? 0 : -1;
+            if (other.location == null) return 1;
+            return location.getId().compareTo(other.location.getId());
+        }
+    }
+}
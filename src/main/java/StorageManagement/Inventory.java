@@ -1,43 +1,294 @@
 package StorageManagement;
 
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
 
 import Exceptions.StorageException;
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
+/**
+ * Stock counts per storage location.
+ * Location ids are interned once to dense int slots; counts live unboxed in
+ * fixed-size AtomicIntegerArray chunks and change through CAS deltas that
+ * never go below zero. Updates share a StampedLock in read mode, so a
+ * snapshot only has to take it exclusively for the copy to see a consistent
+ * state across all locations.
+ * Every changed slot is also queued once as dirty, so a reporter can emit
+ * only what changed since its last report without touching the lock.
+ */
 public class Inventory {
 
-    private Map<String, Integer> stockMap;
-    SystemLogger logger = new SystemLogger();
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_CHUNKS = 1 << 16;
 
-    public Inventory() {
-        this.stockMap = new HashMap<>();
-    }
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final StampedLock gate = new StampedLock();
+    private volatile int slotCount;
+    private final ConcurrentLinkedQueue<Integer> dirtySlots = new ConcurrentLinkedQueue<>();
+    private final Object reportLock = new Object();
+    private long reportVersion;
+    Logger logger = LoggerFactory.getLogger("Inventory");
 
     public void updateStock(StorageLocation location, int change) throws StorageException {
-        int newStock = getStock(location) + change;
-        if (newStock < 0) {
-            throw new StorageException("Stock cannot be negative");
+        int slot = slotOf(location.getId());
+        long stamp = gate.readLock();
+        try {
+            apply(slot, change);
+        } finally {
+            gate.unlockRead(stamp);
+        }
+    }
+
+    /** Moves stock between two locations in one step; snapshots never see half of it. */
+    public void transfer(StorageLocation from, StorageLocation to, int amount) throws StorageException {
+        int fromSlot = slotOf(from.getId());
+        int toSlot = slotOf(to.getId());
+        long stamp = gate.readLock();
+        try {
+            apply(fromSlot, -amount);
+            apply(toSlot, amount);
+        } finally {
+            gate.unlockRead(stamp);
         }
-        stockMap.put(location.getId(), newStock);
     }
 
+    /** Applies several deltas under one shared gate; on failure the applied ones are undone. */
+    public void applyDeltas(Map<StorageLocation, Integer> deltas) throws StorageException {
+        int[] slotsInOrder = new int[deltas.size()];
+        int[] changes = new int[deltas.size()];
+        int n = 0;
+        for (Map.Entry<StorageLocation, Integer> e : deltas.entrySet()) {
+            slotsInOrder[n] = slotOf(e.getKey().getId());
+            changes[n++] = e.getValue();
+        }
+        long stamp = gate.readLock();
+        try {
+            for (int i = 0; i < n; i++) {
+                try {
+                    apply(slotsInOrder[i], changes[i]);
+                } catch (StorageException e) {
+                    for (int j = i - 1; j >= 0; j--) apply(slotsInOrder[j], -changes[j]);
+                    throw e;
+                }
+            }
+        } finally {
+            gate.unlockRead(stamp);
+        }
+    }
 
     public int getStock(StorageLocation location) {
-        return stockMap.getOrDefault(location.getId(), 0);
+        Integer slot = slots.get(location.getId());
+        return slot == null ? 0 : counts(slot).get(slot & (CHUNK_SIZE - 1));
     }
 
     public int countItems(StorageLocation location) {
         return getStock(location);
     }
 
+    // Number of distinct locations seen so far
+    public int size() {
+        return slotCount;
+    }
+
+    /** Point-in-time copy of every count, taken while no delta is in flight. */
+    public Snapshot snapshot() {
+        long stamp = gate.writeLock();
+        try {
+            int n = slotCount;
+            String[] ids = new String[n];
+            int[] counts = new int[n];
+            for (int slot = 0; slot < n; slot++) {
+                Chunk chunk = chunks.get(slot >>> CHUNK_BITS);
+                ids[slot] = chunk.ids[slot & (CHUNK_SIZE - 1)];
+                counts[slot] = chunk.counts.get(slot & (CHUNK_SIZE - 1));
+            }
+            return new Snapshot(ids, counts);
+        } finally {
+            gate.unlockWrite(stamp);
+        }
+    }
+
     public void printInventory() {
     	logger.logInfo("Inventory", "---- INVENTORY STATUS ----");
 
-    	for (String id : stockMap.keySet()) {
-    	    int qty = stockMap.get(id);
-    	    logger.logInfo("Inventory", "Location " + id + ": " + qty + " items");
+    	for (Map.Entry<String, Integer> e : snapshot()) {
+    	    logger.logInfo("Inventory", "Location " + e.getKey() + ": " + e.getValue() + " items");
     	}
     }
+
+    // CAS loop that rejects results below zero
+    private void apply(int slot, int change) throws StorageException {
+        AtomicIntegerArray counts = counts(slot);
+        int i = slot & (CHUNK_SIZE - 1);
+        while (true) {
+            int current = counts.get(i);
+            int next = current + change;
+            if (next < 0) {
+                throw new StorageException("Stock cannot be negative");
+            }
+            if (counts.compareAndSet(i, current, next)) {
+                markDirty(slot);
+                return;
+            }
+        }
+    }
+
+    private void markDirty(int slot) {
+        Chunk chunk = chunks.get(slot >>> CHUNK_BITS);
+        if (chunk.dirty.compareAndSet(slot & (CHUNK_SIZE - 1), 0, 1)) dirtySlots.offer(slot);
+    }
+
+    /**
+     * Returns the locations whose count changed since the previous call, with the
+     * count last reported and the current one. Reads atomic counts directly, so
+     * stock moves are never blocked; a location changed during the drain simply
+     * shows up again in the next report.
+     */
+    public ChangeReport drainChanges() {
+        synchronized (reportLock) {
+            List<Change> changes = new ArrayList<>();
+            Integer slot;
+            while ((slot = dirtySlots.poll()) != null) {
+                Chunk chunk = chunks.get(slot >>> CHUNK_BITS);
+                int i = slot & (CHUNK_SIZE - 1);
+                chunk.dirty.set(i, 0); // cleared before the read, so later updates queue it again
+                int current = chunk.counts.get(i);
+                int previous = chunk.reported[i];
+                if (current != previous) {
+                    chunk.reported[i] = current;
+                    changes.add(new Change(chunk.ids[i], previous, current));
+                }
+            }
+            return new ChangeReport(++reportVersion, changes);
+        }
+    }
+
+    private AtomicIntegerArray counts(int slot) {
+        return chunks.get(slot >>> CHUNK_BITS).counts;
+    }
+
+    private int slotOf(String id) {
+        Integer slot = slots.get(id);
+        return slot != null ? slot : intern(id);
+    }
+
+    // New ids are rare, so they are assigned under the monitor
+    private synchronized int intern(String id) {
+        Integer existing = slots.get(id);
+        if (existing != null) return existing;
+        int slot = slotCount;
+        int chunkIndex = slot >>> CHUNK_BITS;
+        if (chunkIndex >= MAX_CHUNKS) {
+            throw new IllegalStateException("Too many storage locations");
+        }
+        Chunk chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            chunk = new Chunk();
+            chunks.set(chunkIndex, chunk);
+        }
+        chunk.ids[slot & (CHUNK_SIZE - 1)] = id;
+        slotCount = slot + 1; // publishes the id before the slot becomes visible
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private static final class Chunk {
+        final AtomicIntegerArray counts = new AtomicIntegerArray(CHUNK_SIZE);
+        final String[] ids = new String[CHUNK_SIZE];
+        final AtomicIntegerArray dirty = new AtomicIntegerArray(CHUNK_SIZE);
+        final int[] reported = new int[CHUNK_SIZE]; // guarded by reportLock
+    }
+
+    public static class Change {
+        private final String locationId;
+        private final int previous;
+        private final int current;
+
+        Change(String locationId, int previous, int current) {
+            this.locationId = locationId;
+            this.previous = previous;
+            this.current = current;
+        }
+
+        public String getLocationId() { return locationId; }
+        public int getPrevious() { return previous; }
+        public int getCurrent() { return current; }
+        public int getDelta() { return current - previous; }
+    }
+
+    /** Changes since the previous report; version counts reports. */
+    public static class ChangeReport {
+        private final long version;
+        private final List<Change> changes;
+
+        ChangeReport(long version, List<Change> changes) {
+            this.version = version;
+            this.changes = Collections.unmodifiableList(changes);
+        }
+
+        public long getVersion() { return version; }
+        public List<Change> getChanges() { return changes; }
+        public boolean isEmpty() { return changes.isEmpty(); }
+    }
+
+    /** Immutable, consistent view of all counts in slot order. */
+    public static class Snapshot implements Iterable<Map.Entry<String, Integer>> {
+        private final String[] ids;
+        private final int[] counts;
+
+        Snapshot(String[] ids, int[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public String getId(int index) {
+            return ids[index];
+        }
+
+        public int getCount(int index) {
+            return counts[index];
+        }
+
+        public long total() {
+            long sum = 0;
+            for (int c : counts) sum += c;
+            return sum;
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Integer>> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < ids.length;
+                }
+
+                @Override
+                public Map.Entry<String, Integer> next() {
+                    if (next >= ids.length) throw new NoSuchElementException();
+                    int i = next++;
+                    return new AbstractMap.SimpleImmutableEntry<>(ids[i], counts[i]);
+                }
+            };
+        }
+    }
 }
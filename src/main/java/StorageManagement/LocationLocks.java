@@ -0,0 +1,63 @@
+package StorageManagement;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hash-striped locks keyed by storage location id.
+ * Stock moves on different locations usually map to different stripes and
+ * run in parallel. Operations spanning several locations lock their stripes
+ * in ascending index order, so two of them can never wait on each other.
+ */
+class LocationLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    LocationLocks() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    LocationLocks(int minStripes) {
+        int n = 1;
+        while (n < minStripes) n <<= 1;
+        this.stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) stripes[i] = new ReentrantLock();
+        this.mask = n - 1;
+    }
+
+    int stripeOf(StorageLocation location) {
+        int h = location.getId().hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    void lock(StorageLocation location) {
+        stripes[stripeOf(location)].lock();
+    }
+
+    void unlock(StorageLocation location) {
+        stripes[stripeOf(location)].unlock();
+    }
+
+    /** Locks the stripes of all given locations in a fixed order; returns them for unlockAll. */
+    int[] lockAll(StorageLocation... locations) {
+        int[] indexes = new int[locations.length];
+        for (int i = 0; i < locations.length; i++) indexes[i] = stripeOf(locations[i]);
+        Arrays.sort(indexes);
+        int distinct = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            if (i == 0 || indexes[i] != indexes[i - 1]) indexes[distinct++] = indexes[i];
+        }
+        int[] held = Arrays.copyOf(indexes, distinct);
+        for (int index : held) stripes[index].lock();
+        return held;
+    }
+
+    void unlockAll(int[] held) {
+        for (int i = held.length - 1; i >= 0; i--) stripes[held[i]].unlock();
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+}
@@ -1,17 +1,20 @@
 package StorageManagement;
 
+import java.util.List;
+
 import Exceptions.StorageException;
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
 public class RoboticArm {
 
-	//private String id;
-    private boolean active;
-    private SystemLogger logger;
+    private final String id;
+    private volatile boolean active;
+    private Logger logger;
 
     public RoboticArm(String id) {
-   // 	this.id = id;
-        this.logger = new SystemLogger();
+        this.id = id;
+        this.logger = LoggerFactory.getLogger("RoboticArm");
     }
 
     public void moveToStorage() throws StorageException {
@@ -40,6 +43,37 @@ public class RoboticArm {
         logger.logInfo("RoboticArm", "Deactivated.");
     }
 
+    /**
+     * One activate, move along the route, deactivate cycle that picks every
+     * given location. Logs once per cycle instead of once per step.
+     */
+    public void pickCycle(List<String> route) throws StorageException {
+        if (route.isEmpty()) return;
+        if (active) {
+            throw new StorageException("Robotic arm already active");
+        }
+        active = true;
+        try {
+            for (String locationId : route) {
+                moveTo(locationId);
+            }
+        } finally {
+            active = false;
+        }
+        logger.logInfo("RoboticArm", id + " picked " + route.size() + " location(s) in one cycle: " + route);
+    }
+
+    // Single movement step; the hardware call would go here
+    private void moveTo(String locationId) throws StorageException {
+        if (!active) {
+            throw new StorageException("Robotic arm is inactive");
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
     public boolean isActive() {
         return active;
     }
@@ -0,0 +1,218 @@
+package StorageManagement;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Exceptions.StorageException;
+import Logging.Logger;
+import Logging.LoggerFactory;
+
+/**
+ * Pool of robotic arms fed by per-arm pick queues.
+ * Picks are routed to an arm by storage zone (the id without its trailing
+ * number) and band of NEARBY_SLOTS slots, so picks for nearby locations meet
+ * in one queue and are coalesced into a single activate, multi-move,
+ * deactivate cycle, while a zone with many slots still spreads over the arms.
+ * An arm whose queue is empty steals from the tail of the longest other queue.
+ */
+public class RoboticArmPool {
+
+    // Upper bound on picks per cycle and on the slot distance that counts as nearby
+    private static final int MAX_BATCH = 16;
+    private static final int NEARBY_SLOTS = 4;
+
+    private final List<RoboticArm> arms;
+    private final List<LinkedBlockingDeque<Pick>> queues;
+    private final List<Thread> workers;
+    private final Semaphore available = new Semaphore(0);
+    private final AtomicLong activations = new AtomicLong();
+    private final AtomicLong picks = new AtomicLong();
+    private final AtomicLong steals = new AtomicLong();
+    private final Logger logger;
+    private volatile boolean running = true;
+
+    public RoboticArmPool(List<String> armIds) {
+        if (armIds == null || armIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one robotic arm is required");
+        }
+        this.logger = LoggerFactory.getLogger("RoboticArmPool");
+        this.arms = new ArrayList<>();
+        this.queues = new ArrayList<>();
+        this.workers = new ArrayList<>();
+        for (String id : armIds) {
+            arms.add(new RoboticArm(id));
+            queues.add(new LinkedBlockingDeque<>());
+        }
+        for (int i = 0; i < arms.size(); i++) {
+            final int index = i;
+            Thread worker = new Thread(() -> work(index), "robotic-arm-" + armIds.get(i));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /** Queues a pick at the location; the future completes once an arm has visited it. */
+    public CompletableFuture<Void> submit(StorageLocation location) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new StorageException("Robotic arm pool is shut down"));
+        }
+        Pick pick = new Pick(location.getId());
+        LinkedBlockingDeque<Pick> queue = queues.get(pick.queueIndex(queues.size()));
+        queue.offerLast(pick);
+        available.release();
+        // shutdown() may have drained the queues between the check above and the offer
+        if (!running && queue.removeFirstOccurrence(pick)) {
+            pick.future.completeExceptionally(new StorageException("Robotic arm pool is shut down"));
+        }
+        return pick.future;
+    }
+
+    private void work(int index) {
+        RoboticArm arm = arms.get(index);
+        LinkedBlockingDeque<Pick> own = queues.get(index);
+        try {
+            while (running || hasQueuedPicks()) {
+                if (!available.tryAcquire(100, TimeUnit.MILLISECONDS)) continue;
+                Pick first = own.pollFirst();
+                LinkedBlockingDeque<Pick> source = own;
+                if (first == null) {
+                    source = longestOtherQueue(index);
+                    first = source == null ? null : source.pollLast();
+                    if (first == null) continue; // another arm took it in a batch
+                    steals.incrementAndGet();
+                }
+                List<Pick> batch = coalesce(first, source);
+                runCycle(arm, batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Takes queued picks near the first one from the same queue
+    private List<Pick> coalesce(Pick first, LinkedBlockingDeque<Pick> source) {
+        List<Pick> batch = new ArrayList<>();
+        batch.add(first);
+        Iterator<Pick> it = source.iterator();
+        while (batch.size() < MAX_BATCH && it.hasNext()) {
+            Pick p = it.next();
+            if (first.isNear(p) && source.removeFirstOccurrence(p)) {
+                batch.add(p);
+                available.tryAcquire(); // may miss a permit still being released; a worker then wakes idle
+            }
+        }
+        // visit locations in order along the aisle
+        batch.sort((a, b) -> a.zone.equals(b.zone)
+                ? Integer.compare(a.slot, b.slot) : a.zone.compareTo(b.zone));
+        return batch;
+    }
+
+    private void runCycle(RoboticArm arm, List<Pick> batch) {
+        List<String> route = new ArrayList<>(batch.size());
+        for (Pick p : batch) route.add(p.locationId);
+        try {
+            arm.pickCycle(route);
+            activations.incrementAndGet();
+            picks.addAndGet(batch.size());
+            for (Pick p : batch) p.future.complete(null);
+        } catch (StorageException e) {
+            logger.logError("RoboticArmPool", "Pick cycle failed on " + arm.getId() + ": " + e.getMessage());
+            for (Pick p : batch) p.future.completeExceptionally(e);
+        }
+    }
+
+    static int queueFor(String locationId, int queueCount) {
+        return new Pick(locationId).queueIndex(queueCount);
+    }
+
+    private LinkedBlockingDeque<Pick> longestOtherQueue(int index) {
+        LinkedBlockingDeque<Pick> best = null;
+        for (int i = 0; i < queues.size(); i++) {
+            if (i == index) continue;
+            LinkedBlockingDeque<Pick> q = queues.get(i);
+            if (!q.isEmpty() && (best == null || q.size() > best.size())) best = q;
+        }
+        return best;
+    }
+
+    private boolean hasQueuedPicks() {
+        for (LinkedBlockingDeque<Pick> q : queues) {
+            if (!q.isEmpty()) return true;
+        }
+        return false;
+    }
+
+    public int getArmCount() {
+        return arms.size();
+    }
+
+    public long getActivations() {
+        return activations.get();
+    }
+
+    public long getPicks() {
+        return picks.get();
+    }
+
+    public long getSteals() {
+        return steals.get();
+    }
+
+    public double getPicksPerActivation() {
+        long a = activations.get();
+        return a == 0 ? 0 : picks.get() / (double) a;
+    }
+
+    /** Finishes the queued picks, then stops the arm threads. */
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (LinkedBlockingDeque<Pick> q : queues) {
+            Pick p;
+            while ((p = q.pollFirst()) != null) {
+                p.future.completeExceptionally(new StorageException("Robotic arm pool is shut down"));
+            }
+        }
+        logger.logInfo("RoboticArmPool", String.format("Stopped after %d picks in %d activations (%.2f per activation)",
+                picks.get(), activations.get(), getPicksPerActivation()));
+    }
+
+    private static final class Pick {
+        final String locationId;
+        final String zone;
+        final int slot;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Pick(String locationId) {
+            this.locationId = locationId;
+            int end = locationId.length();
+            while (end > 0 && Character.isDigit(locationId.charAt(end - 1))) end--;
+            this.zone = locationId.substring(0, end);
+            this.slot = end == locationId.length() || locationId.length() - end > 9
+                    ? 0 : Integer.parseInt(locationId.substring(end));
+        }
+
+        // Consecutive bands of a zone land on consecutive queues
+        int queueIndex(int queueCount) {
+            return Math.floorMod(31 * zone.hashCode() + slot / NEARBY_SLOTS, queueCount);
+        }
+
+        boolean isNear(Pick other) {
+            return zone.equals(other.zone) && Math.abs(slot - other.slot) <= NEARBY_SLOTS;
+        }
+    }
+}
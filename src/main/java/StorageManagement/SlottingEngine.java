@@ -0,0 +1,178 @@
+package StorageManagement;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import Exceptions.StorageException;
+import Logging.Logger;
+import Logging.LoggerFactory;
+
+/**
+ * Putaway planner that decides where incoming stock goes.
+ * Locations are grouped by speed class, each with its own free-capacity index.
+ * A quantity first tops up bins already holding the same batch, then goes to
+ * the speed class matching the medicine's pick velocity (hot items to fast
+ * bins), falling back to the nearest other class. Inside a class the smallest
+ * bin that takes the whole rest is preferred, otherwise the emptiest bin is
+ * filled and the remainder placed again, so each placement is O(log n).
+ */
+public class SlottingEngine {
+
+    public enum SpeedClass { FAST, MEDIUM, SLOW }
+
+    // Medicines picked at least this multiple of the average rate count as hot
+    private static final double HOT_FACTOR = 2.0;
+    private static final double COLD_FACTOR = 0.5;
+    // Lost races tolerated per speed class before putaway moves on to the next one
+    private static final int MAX_CONFLICTS = 8;
+
+    private final StorageManager storageManager;
+    private final Map<SpeedClass, CapacityIndex> indexes = new EnumMap<>(SpeedClass.class);
+    private final Map<String, SpeedClass> speedOf = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> picks = new ConcurrentHashMap<>();
+    private final AtomicLong totalPicks = new AtomicLong();
+    private final Map<String, Set<StorageLocation>> batchLocations = new ConcurrentHashMap<>();
+    private final Logger logger;
+
+    public SlottingEngine(StorageManager storageManager) {
+        this.storageManager = storageManager;
+        for (SpeedClass c : SpeedClass.values()) indexes.put(c, new CapacityIndex());
+        this.logger = LoggerFactory.getLogger("SlottingEngine");
+        // keep the class indexes in step with stock moved by any caller
+        storageManager.addLoadListener(location -> {
+            SpeedClass c = speedOf.get(location.getId());
+            if (c != null) indexes.get(c).update(location);
+        });
+    }
+
+    /** Makes a location (already known to the StorageManager) available for putaway. */
+    public void addLocation(StorageLocation location, SpeedClass speedClass) {
+        SpeedClass previous = speedOf.put(location.getId(), speedClass);
+        if (previous != null && previous != speedClass) indexes.get(previous).remove(location);
+        indexes.get(speedClass).update(location);
+    }
+
+    public void recordPick(String medicine, int quantity) {
+        picks.computeIfAbsent(medicine, m -> new LongAdder()).add(quantity);
+        totalPicks.addAndGet(quantity);
+    }
+
+    /** Speed class a medicine should live in, from its picks relative to the average medicine. */
+    public SpeedClass classify(String medicine) {
+        LongAdder count = picks.get(medicine);
+        int medicines = picks.size();
+        if (count == null || medicines == 0) return SpeedClass.SLOW;
+        double average = totalPicks.get() / (double) medicines;
+        long mine = count.sum();
+        if (mine >= HOT_FACTOR * average) return SpeedClass.FAST;
+        if (mine >= COLD_FACTOR * average) return SpeedClass.MEDIUM;
+        return SpeedClass.SLOW;
+    }
+
+    /**
+     * Places quantity units of the given medicine batch and returns where they went.
+     * Fails without moving anything when the registered locations cannot hold it all,
+     * including when other callers fill bins while it is placing: the units already
+     * placed are taken out again before the exception is thrown.
+     */
+    public synchronized List<Placement> putaway(String medicine, String batch, int quantity) throws StorageException {
+        if (medicine == null || quantity <= 0) {
+            throw new StorageException("Failed to put away stock: invalid medicine or quantity");
+        }
+        long free = 0;
+        for (CapacityIndex index : indexes.values()) free += index.getTotalFree();
+        if (free < quantity) {
+            throw new StorageException("Not enough free capacity for " + quantity + " units of " + medicine);
+        }
+
+        List<Placement> placements = new ArrayList<>();
+        String batchKey = medicine + "|" + (batch == null ? "" : batch);
+        Set<StorageLocation> sameBatch = batchLocations.computeIfAbsent(batchKey, k -> new LinkedHashSet<>());
+        int remaining = quantity;
+
+        for (StorageLocation location : new ArrayList<>(sameBatch)) {
+            if (remaining == 0) break;
+            remaining -= place(location, remaining, placements);
+        }
+        for (SpeedClass c : searchOrder(classify(medicine))) {
+            CapacityIndex index = indexes.get(c);
+            int conflicts = 0;
+            while (remaining > 0 && conflicts < MAX_CONFLICTS) {
+                StorageLocation location = index.bestFit(remaining);
+                if (location == null) location = index.mostFree();
+                if (location == null) break;
+                int placed = place(location, remaining, placements);
+                if (placed == 0) conflicts++;
+                remaining -= placed;
+            }
+        }
+
+        if (remaining > 0) {
+            // only reachable when other callers filled bins while we were placing
+            rollback(placements);
+            throw new StorageException("Only " + (quantity - remaining) + " of " + quantity + " units of "
+                    + medicine + " fit after concurrent putaways; nothing was placed");
+        }
+        for (Placement p : placements) sameBatch.add(p.getLocation());
+        return placements;
+    }
+
+    // Fills as much of the location as fits; 0 when another caller got there first
+    private int place(StorageLocation location, int wanted, List<Placement> placements) {
+        int amount = Math.min(wanted, location.getFreeCapacity());
+        if (amount > 0) {
+            try {
+                storageManager.addStockSync(location, amount);
+                placements.add(new Placement(location, amount));
+                return amount;
+            } catch (StorageException e) {
+                // the bin filled up concurrently
+            }
+        }
+        // the index entry was stale; re-key it so the next lookup sees the real free capacity
+        SpeedClass c = speedOf.get(location.getId());
+        if (c != null) indexes.get(c).update(location);
+        return 0;
+    }
+
+    // Book-only correction: no arm pick, and all placements are taken back or none
+    private void rollback(List<Placement> placements) {
+        Map<StorageLocation, Integer> undo = new LinkedHashMap<>();
+        for (Placement p : placements) undo.merge(p.getLocation(), -p.getQuantity(), Integer::sum);
+        if (undo.isEmpty()) return;
+        try {
+            storageManager.applyStockDeltasSync(undo);
+        } catch (StorageException e) {
+            logger.logError("SlottingEngine", "Could not roll back " + placements.size() + " placement(s): " + e.getMessage());
+        }
+    }
+
+    private static SpeedClass[] searchOrder(SpeedClass preferred) {
+        switch (preferred) {
+            case FAST: return new SpeedClass[]{SpeedClass.FAST, SpeedClass.MEDIUM, SpeedClass.SLOW};
+            case MEDIUM: return new SpeedClass[]{SpeedClass.MEDIUM, SpeedClass.FAST, SpeedClass.SLOW};
+            default: return new SpeedClass[]{SpeedClass.SLOW, SpeedClass.MEDIUM, SpeedClass.FAST};
+        }
+    }
+
+    public static class Placement {
+        private final StorageLocation location;
+        private final int quantity;
+
+        public Placement(StorageLocation location, int quantity) {
+            this.location = location;
+            this.quantity = quantity;
+        }
+
+        public StorageLocation getLocation() { return location; }
+        public int getQuantity() { return quantity; }
+    }
+}
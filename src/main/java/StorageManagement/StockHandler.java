@@ -1,8 +1,10 @@
 package StorageManagement;
 
+import java.util.concurrent.CompletableFuture;
+
 import Exceptions.StorageException;
 
 public interface StockHandler {
-    void addStock(StorageLocation location, int amount) throws StorageException;
-    void removeStock(StorageLocation location, int amount) throws StorageException;
+    CompletableFuture<Integer> addStock(StorageLocation location, int amount) throws StorageException;
+    CompletableFuture<Integer> removeStock(StorageLocation location, int amount) throws StorageException;
 }
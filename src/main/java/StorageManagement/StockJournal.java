@@ -0,0 +1,361 @@
+package StorageManagement;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import Logging.GroupCommitChannel;
+import Logging.GroupCommitChannel.DurabilityMode;
+import Logging.Logger;
+import Logging.LoggerFactory;
+
+/**
+ * Durable journal of storage location loads. StorageManager appends a move
+ * after reserving it on the location and before publishing it to the
+ * inventory, so recovery never misses a change other components have seen.
+ * Each record holds one or more entries (an absolute load or a delta) and is
+ * framed with its length and CRC32, appended through a group-commit channel.
+ * The journal is split into generations: a checkpoint switches appends to a
+ * new generation, folds the previous snapshot and journal into a compact
+ * snapshot-N file offline and deletes what it replaces. Recovery loads the
+ * newest complete snapshot and replays the journal tail after it, stopping
+ * at the first torn record.
+ */
+public class StockJournal implements AutoCloseable {
+
+    private static final int SNAPSHOT_MAGIC = 0x534E4150; // "SNAP"
+    // magic, generation and body length before the body, CRC after it
+    private static final int SNAPSHOT_OVERHEAD = 4 + 8 + 4 + 4;
+    private static final byte TYPE_LOAD = 1;
+    private static final byte TYPE_DELTA = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path dir;
+    private final DurabilityMode mode;
+    private final long checkpointEveryRecords;
+    private final ReentrantReadWriteLock rotateLock = new ReentrantReadWriteLock();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong recordsInGeneration = new AtomicLong();
+    private final AtomicBoolean checkpointing = new AtomicBoolean();
+    private final ExecutorService checkpointer;
+    private final Logger logger;
+    private GroupCommitChannel channel;
+    private volatile long generation;
+
+    public StockJournal(Path dir) throws IOException {
+        this(dir, DurabilityMode.FORCE_PER_BATCH, 100_000);
+    }
+
+    // checkpointEveryRecords <= 0 leaves checkpoints to the caller
+    public StockJournal(Path dir, DurabilityMode mode, long checkpointEveryRecords) throws IOException {
+        this.dir = dir;
+        this.mode = mode;
+        this.checkpointEveryRecords = checkpointEveryRecords;
+        this.logger = LoggerFactory.getLogger("StockJournal");
+        Files.createDirectories(dir);
+        TreeSet<Long> generations = generations();
+        this.generation = generations.isEmpty() ? 0 : generations.last();
+        truncateTornTail(journalFile(generation));
+        this.channel = new GroupCommitChannel(journalFile(generation), mode);
+        this.checkpointer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "stock-journal-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Records the absolute load of a location, e.g. when it is first registered. */
+    public void recordLoad(String locationId, int load) throws IOException {
+        append(encode(TYPE_LOAD, Map.of(locationId, load)));
+    }
+
+    public void recordDelta(String locationId, int delta) throws IOException {
+        append(encode(TYPE_DELTA, Map.of(locationId, delta)));
+    }
+
+    /** Records several deltas as one record, so recovery sees all of them or none. */
+    public void recordDeltas(Map<String, Integer> deltas) throws IOException {
+        if (deltas.isEmpty()) return;
+        append(encode(TYPE_DELTA, deltas));
+    }
+
+    private void append(byte[] record) throws IOException {
+        rotateLock.readLock().lock();
+        try {
+            channel.append(record);
+        } finally {
+            rotateLock.readLock().unlock();
+        }
+        if (checkpointEveryRecords > 0 && recordsInGeneration.incrementAndGet() >= checkpointEveryRecords
+                && checkpointing.compareAndSet(false, true)) {
+            checkpointer.submit(() -> {
+                try {
+                    checkpoint();
+                } catch (IOException e) {
+                    logger.logError("StockJournal", "Checkpoint failed: " + e.getMessage());
+                } finally {
+                    checkpointing.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Starts a new generation and compacts everything before it into one snapshot.
+     * Appends only pause for the file switch; the fold reads closed files.
+     */
+    public synchronized void checkpoint() throws IOException {
+        long sealed;
+        rotateLock.writeLock().lock();
+        try {
+            channel.close();
+            sealed = generation;
+            generation = sealed + 1;
+            channel = new GroupCommitChannel(journalFile(generation), mode);
+            recordsInGeneration.set(0);
+        } finally {
+            rotateLock.writeLock().unlock();
+        }
+
+        Map<String, Integer> state = recoverThrough(sealed);
+        writeSnapshot(generation, state);
+        for (long g : generations()) {
+            if (g < generation) {
+                Files.deleteIfExists(journalFile(g));
+                Files.deleteIfExists(snapshotFile(g));
+            }
+        }
+        logger.logInfo("StockJournal", "Checkpoint " + generation + " written with " + state.size() + " locations");
+    }
+
+    /** Loads from the newest complete snapshot plus every journal record after it. */
+    public Map<String, Integer> recover() throws IOException {
+        rotateLock.writeLock().lock(); // no appends while the live file is read
+        try {
+            return recoverThrough(generation);
+        } finally {
+            rotateLock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, Integer> recoverThrough(long lastGeneration) throws IOException {
+        Map<String, Integer> state = new HashMap<>();
+        long base = -1;
+        for (long g : generations().descendingSet()) {
+            if (g <= lastGeneration && readSnapshot(g, state)) {
+                base = g;
+                break;
+            }
+        }
+        for (long g = Math.max(0, base); g <= lastGeneration; g++) {
+            replay(journalFile(g), state);
+        }
+        return state;
+    }
+
+    // Applies every intact record; returns the byte length of the valid prefix
+    private long replay(Path file, Map<String, Integer> state) throws IOException {
+        if (!Files.exists(file)) return 0;
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    if (length <= 0 || length > (1 << 24)) break;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    int crc = in.readInt();
+                    if (crc != crc(payload)) break;
+                } catch (EOFException e) {
+                    break; // torn tail
+                }
+                if (state != null) applyRecord(payload, state);
+                valid += 8 + payload.length;
+            }
+        }
+        return valid;
+    }
+
+    private void truncateTornTail(Path file) throws IOException {
+        if (!Files.exists(file)) return;
+        long valid = replay(file, null);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (ch.size() > valid) {
+                logger.logWarning("StockJournal", "Discarding " + (ch.size() - valid) + " torn bytes from " + file.getFileName());
+                ch.truncate(valid);
+            }
+        }
+    }
+
+    private static void applyRecord(byte[] payload, Map<String, Integer> state) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        in.readLong(); // sequence
+        byte type = in.readByte();
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            String id = in.readUTF();
+            int value = in.readInt();
+            if (type == TYPE_LOAD) state.put(id, value);
+            else state.merge(id, value, Integer::sum);
+        }
+    }
+
+    private byte[] encode(byte type, Map<String, Integer> entries) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(32 + entries.size() * 16);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeLong(sequence.incrementAndGet());
+        payload.writeByte(type);
+        payload.writeInt(entries.size());
+        for (Map.Entry<String, Integer> e : entries.entrySet()) {
+            payload.writeUTF(e.getKey());
+            payload.writeInt(e.getValue());
+        }
+        byte[] body = payloadBytes.toByteArray();
+        ByteArrayOutputStream record = new ByteArrayOutputStream(body.length + 8);
+        DataOutputStream out = new DataOutputStream(record);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeInt(crc(body));
+        return record.toByteArray();
+    }
+
+    private void writeSnapshot(long gen, Map<String, Integer> state) throws IOException {
+        Path tmp = dir.resolve(snapshotFile(gen).getFileName() + ".tmp");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(body);
+        data.writeInt(state.size());
+        for (Map.Entry<String, Integer> e : state.entrySet()) {
+            data.writeUTF(e.getKey());
+            data.writeInt(e.getValue());
+        }
+        byte[] bytes = body.toByteArray();
+        try (OutputStream os = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, BUFFER_SIZE))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(gen);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeInt(crc(bytes));
+        }
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(tmp, snapshotFile(gen), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns false when the snapshot is missing, incomplete or corrupt
+    private boolean readSnapshot(long gen, Map<String, Integer> state) throws IOException {
+        Path file = snapshotFile(gen);
+        if (!Files.exists(file)) return false;
+        long fileSize = Files.size(file);
+        try (InputStream is = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(is, BUFFER_SIZE))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readLong() != gen) return false;
+            int length = in.readInt();
+            // the body has to fit between the header and the trailing CRC
+            if (length < 4 || length > fileSize - SNAPSHOT_OVERHEAD) {
+                logger.logWarning("StockJournal", "Ignoring corrupt snapshot " + file.getFileName()
+                        + ": body length " + length + " in a " + fileSize + " byte file");
+                return false;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            if (in.readInt() != crc(bytes)) return false;
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes));
+            int n = data.readInt();
+            Map<String, Integer> loaded = new HashMap<>();
+            for (int i = 0; i < n; i++) loaded.put(data.readUTF(), data.readInt());
+            state.putAll(loaded); // only once the whole body parsed
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private TreeSet<Long> generations() throws IOException {
+        TreeSet<Long> result = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "{journal,snapshot}-*")) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                if (name.endsWith(".tmp")) continue;
+                String digits = name.substring(name.indexOf('-') + 1, name.indexOf('.'));
+                try {
+                    result.add(Long.parseLong(digits));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return (int) crc.getValue();
+    }
+
+    private Path journalFile(long gen) {
+        return dir.resolve(String.format("journal-%08d.log", gen));
+    }
+
+    private Path snapshotFile(long gen) {
+        return dir.resolve(String.format("snapshot-%08d.snap", gen));
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public GroupCommitChannel.Metrics getMetrics() {
+        rotateLock.readLock().lock();
+        try {
+            return channel.getMetrics();
+        } finally {
+            rotateLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        checkpointer.shutdown();
+        try {
+            if (!checkpointer.awaitTermination(5, TimeUnit.SECONDS)) {
+                checkpointer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            checkpointer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        rotateLock.writeLock().lock();
+        try {
+            channel.close();
+        } finally {
+            rotateLock.writeLock().unlock();
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package StorageManagement;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import Exceptions.StorageException;
 
+/**
+ * A storage slot with a fixed capacity. The load is a CAS-updated counter,
+ * so bulk moves are O(1) and never exceed capacity or drop below zero,
+ * without any external lock.
+ */
 public class StorageLocation {
 
     private String id;
     private int capacity;
-    private int currentLoad;
+    private final AtomicInteger currentLoad;
 
     public StorageLocation(String id, int capacity) throws StorageException {
         if (id == null || id.trim().isEmpty()) {
@@ -18,7 +25,7 @@ public class StorageLocation {
 
         this.id = id;
         this.capacity = capacity;
-        this.currentLoad = 0;
+        this.currentLoad = new AtomicInteger();
     }
 
     public String getId() {
@@ -30,24 +37,46 @@ public class StorageLocation {
     }
 
     public int getCurrentLoad() {
-        return currentLoad;
+        return currentLoad.get();
+    }
+
+    public int getFreeCapacity() {
+        return capacity - currentLoad.get();
     }
 
     public boolean isFull() {
-        return currentLoad >= capacity;
+        return currentLoad.get() >= capacity;
     }
 
     public void addItem() throws StorageException {
-        if (isFull()) {
+        if (!tryAdd(1)) {
             throw new StorageException("StorageLocation is full");
         }
-        currentLoad++;
     }
 
     public void removeItem() throws StorageException {
-        if (currentLoad <= 0) {
+        if (!tryRemove(1)) {
             throw new StorageException("StorageLocation is empty");
         }
-        currentLoad--;
+    }
+
+    /** Adds n items at once; false (and nothing changed) if they do not fit. */
+    public boolean tryAdd(int n) {
+        if (n < 0) throw new IllegalArgumentException("Amount must not be negative");
+        while (true) {
+            int load = currentLoad.get();
+            if (n > capacity - load) return false;
+            if (currentLoad.compareAndSet(load, load + n)) return true;
+        }
+    }
+
+    /** Removes n items at once; false (and nothing changed) if fewer are stored. */
+    public boolean tryRemove(int n) {
+        if (n < 0) throw new IllegalArgumentException("Amount must not be negative");
+        while (true) {
+            int load = currentLoad.get();
+            if (load < n) return false;
+            if (currentLoad.compareAndSet(load, load - n)) return true;
+        }
     }
 }
@@ -1,42 +1,89 @@
 package StorageManagement;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import Concurrency.BoundedExecutor;
+import Concurrency.ExecutionMode;
 import Exceptions.StorageException;
-import Logging.SystemLogger;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
+/**
+ * Coordinates stock moves on storage locations.
+ * Each location is guarded by its own lock stripe, so moves on unrelated
+ * locations run in parallel on the executor. Locations are indexed by id
+ * and by free capacity, so lookups never scan the location list.
+ */
 public class StorageManager implements StockHandler {
 
+    // Stock moves running at once, whatever kind of thread carries them
+    private static final int MAX_PARALLEL_MOVES = 4;
+
     private List<StorageLocation> storageLocations;
-    private RoboticArm roboticArm;
+    private final RoboticArmPool armPool;
     private Inventory inventory;
-    private SystemLogger logger;
+    private Logger logger;
     private ExecutorService executor;
-    private ReentrantLock lock;
+    private final LocationLocks locks;
+    private final Map<String, StorageLocation> locationsById;
+    private final CapacityIndex capacityIndex;
+    private final List<Consumer<StorageLocation>> loadListeners;
+    private volatile StockJournal journal;
+    private Map<String, Integer> recoveredLoads = new ConcurrentHashMap<>();
 
     public StorageManager(String roboticArmId) {
-        this.storageLocations = new ArrayList<>();
-        this.roboticArm = new RoboticArm(roboticArmId);
+        this(List.of(roboticArmId));
+    }
+
+    // One pick queue and worker per arm, e.g. the ids from DbReader.loadRoboticArmIds()
+    public StorageManager(List<String> roboticArmIds) {
+        this(roboticArmIds, ExecutionMode.fromSystemProperty());
+    }
+
+    public StorageManager(List<String> roboticArmIds, ExecutionMode mode) {
+        this.storageLocations = new CopyOnWriteArrayList<>();
+        this.armPool = new RoboticArmPool(roboticArmIds);
         this.inventory = new Inventory();
-        this.logger = new SystemLogger();
-        this.executor = Executors.newFixedThreadPool(4);
-        this.lock = new ReentrantLock();
+        this.logger = LoggerFactory.getLogger("StorageManagement");
+        this.executor = new BoundedExecutor("storage", MAX_PARALLEL_MOVES, mode);
+        this.locks = new LocationLocks();
+        this.locationsById = new ConcurrentHashMap<>();
+        this.capacityIndex = new CapacityIndex();
+        this.loadListeners = new CopyOnWriteArrayList<>();
     }
 
     public void addStorageLocation(StorageLocation location) {
-        lock.lock();
+        if (locationsById.putIfAbsent(location.getId(), location) != null) {
+            logger.logWarning("StorageManagement", "Storage location already exists: " + location.getId());
+            return;
+        }
+        locks.lock(location);
         try {
-            storageLocations.add(location);
-            logger.logInfo("StorageManagement", "New storage location added: " + location.getId());
+            // a location may arrive with stock already in it, e.g. from storagelocation.csv
+            int load = location.getCurrentLoad();
+            if (load > 0 && inventory.getStock(location) == 0) inventory.updateStock(location, load);
+            loadChanged(location);
+        } catch (StorageException e) {
+            logger.logError("StorageManagement", "Failed to register stock of " + location.getId() + ": " + e.getMessage());
         } finally {
-            lock.unlock();
+            locks.unlock(location);
+        }
+        storageLocations.add(location);
+        try {
+            restoreOrBaseline(location);
+        } catch (StorageException e) {
+            logger.logError("StorageManagement", e.getMessage());
         }
+        logger.logInfo("StorageManagement", "New storage location added: " + location.getId());
     }
 
+    /** Adds stock on the executor; the future yields the location's resulting load. */
     @Override
-    public void addStock(StorageLocation location, int amount) throws StorageException {
+    public CompletableFuture<Integer> addStock(StorageLocation location, int amount) throws StorageException {
         if (location == null) {
             throw new StorageException("Failed to add stock: location is null");
         }
@@ -44,29 +91,43 @@ public class StorageManager implements StockHandler {
             throw new StorageException("Failed to add stock: invalid amount");
         }
 
-        executor.submit(new Runnable() {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        submit(result, new Runnable() {
             @Override
             public void run() {
                 try {
-                    lock.lock();
+                    int load;
+                    // the location updates itself atomically; the stripe keeps inventory in step
+                    locks.lock(location);
                     try {
-                        for (int i = 0; i < amount; i++) {
-                            location.addItem();
+                        if (!location.tryAdd(amount)) {
+                            throw new StorageException("StorageLocation is full");
                         }
+                        journalReserved(Map.of(location, amount));
                         inventory.updateStock(location, amount);
-                        logger.logInfo("StorageManagement", amount + " items added to location " + location.getId());
+                        loadChanged(location);
+                        load = location.getCurrentLoad();
                     } finally {
-                        lock.unlock();
+                        locks.unlock(location);
                     }
+                    logger.logInfo("StorageManagement", () -> amount + " items added to location " + location.getId());
+                    result.complete(load);
                 } catch (Exception e) {
                     logger.logError("StorageManagement", "Add stock failed: " + e.getMessage());
+                    result.completeExceptionally(e);
                 }
             }
         });
+        return result;
     }
 
+    /**
+     * Removes stock on the executor; the future completes after the arm pick with the resulting load.
+     * The stock is reserved before the pick so concurrent removals cannot oversell it, and is
+     * booked back if the pick fails.
+     */
     @Override
-    public void removeStock(StorageLocation location, int amount) throws StorageException {
+    public CompletableFuture<Integer> removeStock(StorageLocation location, int amount) throws StorageException {
         if (location == null) {
             throw new StorageException("Failed to remove stock: location is null");
         }
@@ -74,76 +135,372 @@ public class StorageManager implements StockHandler {
             throw new StorageException("Failed to remove stock: invalid amount");
         }
 
-        executor.submit(new Runnable() {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        submit(result, new Runnable() {
             @Override
             public void run() {
                 try {
-                    lock.lock();
+                    int load;
+                    locks.lock(location);
                     try {
-                        if (location.getCurrentLoad() < amount) {
+                        if (!location.tryRemove(amount)) {
                             throw new StorageException("Not enough items in storage");
                         }
-
-                        for (int i = 0; i < amount; i++) {
-                            location.removeItem();
-                        }
+                        journalReserved(Map.of(location, -amount));
                         inventory.updateStock(location, -amount);
+                        loadChanged(location);
+                        load = location.getCurrentLoad();
                     } finally {
-                        lock.unlock();
+                        locks.unlock(location);
                     }
 
-                    roboticArm.setActive(true);
-                    roboticArm.moveToStorage();
-                    roboticArm.deactivate();
-
-                    logger.logInfo("StorageManagement", amount + " items removed from location " + location.getId());
+                    armPool.submit(location).whenComplete((done, error) -> {
+                        if (error != null) {
+                            logger.logError("StorageManagement", "Pick failed at " + location.getId() + ": " + error.getMessage());
+                            restoreStock(location, amount);
+                            result.completeExceptionally(error);
+                        } else {
+                            logger.logInfo("StorageManagement", () -> amount + " items removed from location " + location.getId());
+                            result.complete(load);
+                        }
+                    });
                 } catch (StorageException e) {
                     logger.logError("StorageManagement", "Remove stock failed: " + e.getMessage());
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies stock adjustments to several locations as one locked pass on the executor.
+     * All stripes are taken in order and every delta is checked first, so either all
+     * deltas apply or none do. Negative deltas are book corrections and trigger no pick.
+     * The future yields each location's resulting load.
+     */
+    public CompletableFuture<Map<StorageLocation, Integer>> applyStockDeltas(Map<StorageLocation, Integer> deltas)
+            throws StorageException {
+        if (deltas == null) {
+            throw new StorageException("Failed to apply stock deltas: no deltas given");
+        }
+        for (StorageLocation location : deltas.keySet()) {
+            if (location == null) throw new StorageException("Failed to apply stock deltas: location is null");
+        }
+        Map<StorageLocation, Integer> batch = new LinkedHashMap<>(deltas);
+        CompletableFuture<Map<StorageLocation, Integer>> result = new CompletableFuture<>();
+        submit(result, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.complete(applyDeltasLocked(batch));
+                } catch (StorageException e) {
+                    result.completeExceptionally(e);
                 }
             }
         });
+        return result;
+    }
+
+    /**
+     * applyStockDeltas on the calling thread: all or nothing, and negative deltas
+     * are book corrections without a pick. Used by the slotting engine to take back
+     * a putaway that could not be completed.
+     */
+    public Map<StorageLocation, Integer> applyStockDeltasSync(Map<StorageLocation, Integer> deltas) throws StorageException {
+        if (deltas == null) {
+            throw new StorageException("Failed to apply stock deltas: no deltas given");
+        }
+        for (StorageLocation location : deltas.keySet()) {
+            if (location == null) throw new StorageException("Failed to apply stock deltas: location is null");
+        }
+        return applyDeltasLocked(new LinkedHashMap<>(deltas));
+    }
+
+    private Map<StorageLocation, Integer> applyDeltasLocked(Map<StorageLocation, Integer> batch) throws StorageException {
+        StorageLocation[] locations = batch.keySet().toArray(new StorageLocation[0]);
+        Map<StorageLocation, Integer> loads = new LinkedHashMap<>();
+        int[] held = locks.lockAll(locations);
+        try {
+            for (Map.Entry<StorageLocation, Integer> e : batch.entrySet()) {
+                int next = e.getKey().getCurrentLoad() + e.getValue();
+                if (next < 0 || next > e.getKey().getCapacity()) {
+                    throw new StorageException("Stock delta " + e.getValue() + " out of range for location "
+                            + e.getKey().getId());
+                }
+            }
+            for (Map.Entry<StorageLocation, Integer> e : batch.entrySet()) {
+                StorageLocation location = e.getKey();
+                int delta = e.getValue();
+                // cannot fail: the stripes are held and the range was checked above
+                if (delta > 0) location.tryAdd(delta);
+                else if (delta < 0) location.tryRemove(-delta);
+                loads.put(location, location.getCurrentLoad());
+            }
+            journalReserved(batch);
+            inventory.applyDeltas(batch);
+            for (StorageLocation location : locations) loadChanged(location);
+        } catch (StorageException e) {
+            logger.logError("StorageManagement", "Stock deltas rejected: " + e.getMessage());
+            throw e;
+        } finally {
+            locks.unlockAll(held);
+        }
+        logger.logInfo("StorageManagement", () -> "Applied stock deltas to " + batch.size() + " location(s)");
+        return loads;
+    }
+
+    // A rejected task fails its future instead of throwing at the caller
+    private void submit(CompletableFuture<?> result, Runnable task) {
+        try {
+            executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new StorageException("Storage manager is shut down"));
+        }
     }
 
     public void removeStockSync(StorageLocation location, int amount) throws StorageException {
-        if (location.getCurrentLoad() < amount) {
-            throw new StorageException("Not enough items in storage");
+        if (location == null) {
+            throw new StorageException("Failed to remove stock: location is null");
+        }
+        if (amount <= 0) {
+            throw new StorageException("Failed to remove stock: invalid amount");
+        }
+        locks.lock(location);
+        try {
+            // Actually remove stock immediately
+            if (!location.tryRemove(amount)) {
+                throw new StorageException("Not enough items in storage");
+            }
+            journalReserved(Map.of(location, -amount));
+            inventory.updateStock(location, -amount);
+            loadChanged(location);
+        } finally {
+            locks.unlock(location);
         }
 
-        // Actually remove stock immediately
-        for (int i = 0; i < amount; i++) {
-            location.removeItem();
+        // waits for the pick; concurrent callers share arm cycles
+        try {
+            armPool.submit(location).join();
+        } catch (CompletionException e) {
+            restoreStock(location, amount);
+            if (e.getCause() instanceof StorageException) throw (StorageException) e.getCause();
+            throw new StorageException("Pick failed at " + location.getId() + ": " + e.getCause());
         }
-        inventory.updateStock(location, -amount);
+    }
 
-        roboticArm.setActive(true);
-        roboticArm.moveToStorage();
-        roboticArm.deactivate();
+    // Books the items of a failed pick back; they never left the location
+    private void restoreStock(StorageLocation location, int amount) {
+        try {
+            addStockSync(location, amount);
+        } catch (StorageException e) {
+            logger.logError("StorageManagement", "Could not restore " + amount + " items at " + location.getId()
+                    + " after a failed pick: " + e.getMessage());
+        }
     }
 
 
+    /**
+     * Reports the locations whose stock changed since the previous run.
+     * Runs without any storage lock, so stock moves continue during the report.
+     */
     public void manageInventory() {
+        manageInventory(false);
+    }
+
+    /**
+     * Reports every location's stock when fullReport is set (e.g. for an audit),
+     * otherwise only the changes since the previous delta report. The full report
+     * leaves the delta baseline alone.
+     */
+    public void manageInventory(boolean fullReport) {
     	executor.submit(new Runnable() {
     	    @Override
     	    public void run() {
     	        logger.logInfo("StorageManagement", "Inventory management started...");
-    	        lock.lock();
-    	        try {
+    	        if (fullReport) {
     	            for (StorageLocation location : storageLocations) {
-    	                int count = inventory.countItems(location);
-    	                System.out.println("Inventory at " + location.getId() + ": " + count + " items.");
+    	                System.out.println("Inventory at " + location.getId() + ": "
+    	                        + inventory.countItems(location) + " items.");
     	            }
-    	        } finally {
-    	            lock.unlock();
+    	            logger.logInfo("StorageManagement", "Inventory management completed: full report, "
+    	                    + storageLocations.size() + " location(s).");
+    	            return;
+    	        }
+    	        Inventory.ChangeReport report = inventory.drainChanges();
+    	        for (Inventory.Change change : report.getChanges()) {
+    	            System.out.println("Inventory at " + change.getLocationId() + ": " + change.getCurrent()
+    	                    + " items (" + (change.getDelta() >= 0 ? "+" : "") + change.getDelta() + ").");
     	        }
-    	        logger.logInfo("StorageManagement", "Inventory management completed.");
+    	        logger.logInfo("StorageManagement", "Inventory management completed: report " + report.getVersion()
+    	                + ", " + report.getChanges().size() + " changed location(s).");
     	    }
     	});
     }
 
+    /**
+     * Moves stock between two locations as one step on the calling thread.
+     * Both stripes are taken in a fixed order, so opposing transfers cannot deadlock.
+     */
+    public void transferStock(StorageLocation from, StorageLocation to, int amount) throws StorageException {
+        if (from == null || to == null) {
+            throw new StorageException("Failed to transfer stock: location is null");
+        }
+        if (amount <= 0) {
+            throw new StorageException("Failed to transfer stock: invalid amount");
+        }
+        if (from == to) return;
+
+        int[] held = locks.lockAll(from, to);
+        try {
+            if (!from.tryRemove(amount)) {
+                throw new StorageException("Not enough items in storage");
+            }
+            if (!to.tryAdd(amount)) {
+                from.tryAdd(amount); // give the items back
+                throw new StorageException("StorageLocation is full");
+            }
+            Map<StorageLocation, Integer> moved = new LinkedHashMap<>();
+            moved.put(from, -amount);
+            moved.put(to, amount);
+            journalReserved(moved);
+            inventory.transfer(from, to, amount);
+            loadChanged(from);
+            loadChanged(to);
+        } finally {
+            locks.unlockAll(held);
+        }
+        logger.logInfo("StorageManagement", () -> amount + " items moved from " + from.getId() + " to " + to.getId());
+    }
+
+    /**
+     * Adds stock immediately on the calling thread.
+     * Used by the slotting engine, which needs the bin filled before choosing the next one.
+     */
+    public void addStockSync(StorageLocation location, int amount) throws StorageException {
+        if (location == null) {
+            throw new StorageException("Failed to add stock: location is null");
+        }
+        if (amount <= 0) {
+            throw new StorageException("Failed to add stock: invalid amount");
+        }
+        locks.lock(location);
+        try {
+            if (!location.tryAdd(amount)) {
+                throw new StorageException("StorageLocation is full");
+            }
+            journalReserved(Map.of(location, amount));
+            inventory.updateStock(location, amount);
+            loadChanged(location);
+        } finally {
+            locks.unlock(location);
+        }
+    }
+
+    /**
+     * Makes stock moves durable through the journal. Locations already registered
+     * take their journaled load; the others are journaled with their current load
+     * as a baseline, as are locations added later. Call at startup, before stock
+     * starts moving; the caller owns the journal and closes it after shutdown().
+     */
+    public synchronized void attachJournal(StockJournal stockJournal) throws StorageException {
+        Map<String, Integer> recovered;
+        try {
+            recovered = stockJournal.recover();
+        } catch (IOException e) {
+            throw new StorageException("Stock journal recovery failed: " + e.getMessage());
+        }
+        this.recoveredLoads = new ConcurrentHashMap<>(recovered);
+        this.journal = stockJournal;
+        for (StorageLocation location : storageLocations) {
+            restoreOrBaseline(location);
+        }
+        logger.logInfo("StorageManagement", "Stock journal attached, " + recovered.size() + " location load(s) recovered");
+    }
+
+    // Under the location's stripe: adopt the journaled load, or journal the current one
+    private void restoreOrBaseline(StorageLocation location) throws StorageException {
+        StockJournal j = journal;
+        if (j == null) return;
+        Integer load = recoveredLoads.remove(location.getId());
+        locks.lock(location);
+        try {
+            if (load == null) {
+                try {
+                    j.recordLoad(location.getId(), location.getCurrentLoad());
+                } catch (IOException e) {
+                    throw new StorageException("Stock journal write failed: " + e.getMessage());
+                }
+                return;
+            }
+            int delta = load - location.getCurrentLoad();
+            if (delta == 0) return;
+            if (delta > 0 ? !location.tryAdd(delta) : !location.tryRemove(-delta)) {
+                throw new StorageException("Journaled load " + load + " does not fit location " + location.getId());
+            }
+            inventory.updateStock(location, delta);
+            loadChanged(location);
+        } finally {
+            locks.unlock(location);
+        }
+    }
+
+    /*
+     * Reserve, log, publish: every move first changes the location's own load (its CAS
+     * rejects moves that do not fit, so nothing unappliable is journaled), then appends
+     * the deltas here, and only then updates the inventory and capacity indexes. The
+     * journal is therefore written ahead of what other components read, not ahead of
+     * the location counter; a failed write gives the reservation back.
+     */
+    private void journalReserved(Map<StorageLocation, Integer> deltas) throws StorageException {
+        StockJournal j = journal;
+        if (j == null) return;
+        Map<String, Integer> byId = new LinkedHashMap<>();
+        for (Map.Entry<StorageLocation, Integer> e : deltas.entrySet()) byId.put(e.getKey().getId(), e.getValue());
+        try {
+            j.recordDeltas(byId);
+        } catch (IOException e) {
+            for (Map.Entry<StorageLocation, Integer> d : deltas.entrySet()) {
+                if (d.getValue() > 0) d.getKey().tryRemove(d.getValue());
+                else d.getKey().tryAdd(-d.getValue());
+            }
+            throw new StorageException("Stock journal write failed: " + e.getMessage());
+        }
+    }
+
+    /** Registers a callback run under the location's stripe after every load change. */
+    public void addLoadListener(Consumer<StorageLocation> listener) {
+        loadListeners.add(listener);
+    }
+
+    private void loadChanged(StorageLocation location) {
+        capacityIndex.update(location);
+        for (Consumer<StorageLocation> listener : loadListeners) listener.accept(location);
+    }
+
+    /** The location with the given id, or null. */
+    public StorageLocation findLocation(String id) {
+        return id == null ? null : locationsById.get(id);
+    }
+
+    // Locations with the most free capacity first
+    public List<StorageLocation> getEmptiestLocations(int k) {
+        return capacityIndex.emptiest(k);
+    }
+
+    // Locations with the least free capacity first
+    public List<StorageLocation> getFullestLocations(int k) {
+        return capacityIndex.fullest(k);
+    }
+
     public List<StorageLocation> getStorageLocations() {
         return storageLocations;
     }
 
+    public RoboticArmPool getArmPool() {
+        return armPool;
+    }
+
     public Inventory getInventory() {
         return inventory;
     }
@@ -160,6 +517,7 @@ public class StorageManager implements StockHandler {
             executor.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        armPool.shutdown();
         logger.logInfo("StorageManagement", "Storage manager stopped.");
     }
 }
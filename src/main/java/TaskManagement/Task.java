@@ -1,40 +1,113 @@
 package TaskManagement;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Random;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+/**
+ * A unit of warehouse work.
+ * Type and status are enums; the status only moves along the TaskStatus
+ * transitions, each one a compare-and-set, so when two threads race to
+ * complete and fail the same task exactly one of them wins.
+ * createdAt is kept as epoch millis and only formatted when asked for.
+ */
 public class Task {
-    private String id;
-    private String type;
-    private String source;
-    private String destination;
-    private String status;
-    private String createdAt;
-    
-    Random random = new Random();
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final AtomicReferenceFieldUpdater<Task, TaskStatus> STATUS =
+            AtomicReferenceFieldUpdater.newUpdater(Task.class, TaskStatus.class, "status");
+
+    private final String id;
+    private final TaskType type;
+    private final String otherType; // original name when type is OTHER
+    private final String source;
+    private final String destination;
+    private final long createdAtMillis;
+    private volatile TaskStatus status;
 
     public Task(String id, String type, String source, String destination, String status) {
+        this(id, type, source, destination, status, System.currentTimeMillis());
+    }
+
+    public Task(String id, String type, String source, String destination, String status, long createdAtMillis) {
+        this(id, TaskType.parse(type), source, destination, TaskStatus.parse(status), createdAtMillis,
+                type);
+    }
+
+    public Task(String id, TaskType type, String source, String destination, TaskStatus status, long createdAtMillis) {
+        this(id, type, source, destination, status, createdAtMillis, null);
+    }
+
+    private Task(String id, TaskType type, String source, String destination, TaskStatus status,
+                 long createdAtMillis, String typeName) {
         this.id = id;
         this.type = type;
+        this.otherType = type == TaskType.OTHER && typeName != null ? typeName : null;
         this.source = source;
         this.destination = destination;
         this.status = status;
-        this.createdAt = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
+        this.createdAtMillis = createdAtMillis;
     }
 
     public String getId() { return id; }
-    public String getType() { return type; }
+    public String getType() { return otherType != null ? otherType : type.name(); }
+    public TaskType getTaskType() { return type; }
     public String getSource() { return source; }
     public String getDestination() { return destination; }
-    public String getStatus() { return status; }
-    public String getCreatedAt() { return createdAt; }
+    public String getStatus() { return status.name(); }
+    public TaskStatus getTaskStatus() { return status; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+
+    public String getCreatedAt() {
+        return TIMESTAMP.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Moves from expected to next; false if that move is not a TaskStatus transition
+     * or another thread changed the status first. Like moveTo, it never throws.
+     */
+    public boolean transition(TaskStatus expected, TaskStatus next) {
+        return expected.canMoveTo(next) && STATUS.compareAndSet(this, expected, next);
+    }
+
+    /** Moves to next from whatever the current status is; false if that status does not allow it. */
+    public boolean moveTo(TaskStatus next) {
+        while (true) {
+            TaskStatus current = status;
+            if (!current.canMoveTo(next)) return false;
+            if (STATUS.compareAndSet(this, current, next)) return true;
+        }
+    }
 
-    public void setStatus(String status) { this.status = status; }
+    public boolean start() { return transition(TaskStatus.PENDING, TaskStatus.IN_PROGRESS); }
+    public boolean complete() { return transition(TaskStatus.IN_PROGRESS, TaskStatus.COMPLETED); }
+    public boolean fail() { return moveTo(TaskStatus.FAILED); }
+
+    // String setter for callers without a return value to check: an unknown status or a move
+    // moveTo would refuse throws instead; setting the current status again is a no-op
+    public void setStatus(String status) {
+        TaskStatus next = TaskStatus.parse(status);
+        if (this.status != next && !moveTo(next)) {
+            throw new IllegalStateException("Task " + id + " cannot move from " + this.status + " to " + next);
+        }
+    }
+
+    /** Epoch millis of a yyyy-MM-dd HH:mm:ss timestamp, or the fallback if it does not parse. */
+    public static long parseTimestamp(String text, long fallback) {
+        if (text == null) return fallback;
+        try {
+            return LocalDateTime.parse(text.trim(), TIMESTAMP).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return fallback;
+        }
+    }
 
     @Override
     public String toString() {
         return String.format("Task ID: %s ,%s, From: %s To: %s, Status: %s", 
-           id, type, source, destination, status);
+           id, getType(), source, destination, status);
     }
 }
@@ -1,7 +1,7 @@
 package TaskManagement;
 
 public interface TaskAssignable {
-	void createTask(String type, String source, String destination, String status, String createdAt);
+	void createTask(String id, String type, String source, String destination, String status);
     void assignTask(Task task);
     void completeTask(Task task);
     void failTask(Task task);
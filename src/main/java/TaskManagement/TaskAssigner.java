@@ -0,0 +1,193 @@
+package TaskManagement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import Logging.Logger;
+import Logging.LoggerFactory;
+
+/**
+ * Matches pending tasks to idle AGVs once per tick.
+ * Idle AGVs sit in a bucketed spatial index over the warehouse grid. Each
+ * task, in the order given, takes the nearest idle AGV to its source that has
+ * enough battery for the whole trip plus a reserve; ties go to the fuller
+ * battery. The search widens ring by ring around the source and stops once no
+ * unexplored bucket can be closer, so a tick stays cheap with thousands of
+ * AGVs and tasks.
+ */
+public class TaskAssigner {
+
+    // Battery used per cell travelled, and the level an AGV must keep after a trip
+    static final double BATTERY_PER_CELL = 0.1;
+    static final int BATTERY_RESERVE = 20;
+    private static final int BUCKET_SIZE = 8;
+
+    private final WarehouseGrid grid;
+    private final Map<String, Vehicle> vehicles = new HashMap<>();
+    private final Map<Long, List<Vehicle>> buckets = new HashMap<>();
+    private int minBx = Integer.MAX_VALUE, maxBx = Integer.MIN_VALUE;
+    private int minBy = Integer.MAX_VALUE, maxBy = Integer.MIN_VALUE;
+    private final Logger logger;
+
+    public TaskAssigner(WarehouseGrid grid) {
+        this.grid = grid;
+        this.logger = LoggerFactory.getLogger("TaskAssigner");
+    }
+
+    /** Registers or moves an AGV and marks it idle at the location. */
+    public synchronized void updateAgv(String agvId, String locationId, int batteryLevel) {
+        Vehicle v = vehicles.get(agvId);
+        if (v == null) {
+            v = new Vehicle(agvId);
+            vehicles.put(agvId, v);
+        } else if (v.idle) {
+            unindex(v);
+        }
+        int[] cell = grid.cellOf(locationId);
+        v.x = cell[0];
+        v.y = cell[1];
+        v.battery = batteryLevel;
+        v.idle = true;
+        index(v);
+    }
+
+    public synchronized void removeAgv(String agvId) {
+        Vehicle v = vehicles.remove(agvId);
+        if (v != null && v.idle) unindex(v);
+    }
+
+    /**
+     * Assigns as many of the tasks as possible, each to a different AGV.
+     * Assigned AGVs stay busy until complete() is called for their task.
+     */
+    public synchronized List<Assignment> assign(List<Task> tasks) {
+        List<Assignment> result = new ArrayList<>();
+        for (Task task : tasks) {
+            int[] source = grid.cellOf(task.getSource());
+            int trip = grid.distance(task.getSource(), task.getDestination());
+            Vehicle best = nearestFeasible(source[0], source[1], trip);
+            if (best == null) continue;
+            int cost = WarehouseGrid.distance(best.x, best.y, source[0], source[1]) + trip;
+            unindex(best);
+            best.idle = false;
+            result.add(new Assignment(task, best.id, cost));
+        }
+        if (!result.isEmpty()) {
+            logger.logInfo("TaskAssigner", "Assigned " + result.size() + " of " + tasks.size() + " tasks.");
+        }
+        return result;
+    }
+
+    /** The AGV finished its task: it is idle again at the destination with the trip's battery spent. */
+    public synchronized void complete(Assignment assignment) {
+        Vehicle v = vehicles.get(assignment.getAgvId());
+        if (v == null || v.idle) return;
+        int[] cell = grid.cellOf(assignment.getTask().getDestination());
+        v.x = cell[0];
+        v.y = cell[1];
+        v.battery = Math.max(0, v.battery - (int) Math.ceil(assignment.getCost() * BATTERY_PER_CELL));
+        v.idle = true;
+        index(v);
+    }
+
+    /** The assignment did not go ahead: the AGV is idle again where it was, battery untouched. */
+    public synchronized void release(Assignment assignment) {
+        Vehicle v = vehicles.get(assignment.getAgvId());
+        if (v == null || v.idle) return;
+        v.idle = true;
+        index(v);
+    }
+
+    public synchronized int getIdleCount() {
+        int n = 0;
+        for (Vehicle v : vehicles.values()) if (v.idle) n++;
+        return n;
+    }
+
+    public synchronized int getBattery(String agvId) {
+        Vehicle v = vehicles.get(agvId);
+        return v == null ? -1 : v.battery;
+    }
+
+    // Ring search over buckets; ring r can hold nothing closer than (r - 1) * BUCKET_SIZE + 1
+    private Vehicle nearestFeasible(int x, int y, int trip) {
+        if (minBx > maxBx) return null;
+        int bx = Math.floorDiv(x, BUCKET_SIZE);
+        int by = Math.floorDiv(y, BUCKET_SIZE);
+        int maxRing = Math.max(Math.max(Math.abs(bx - minBx), Math.abs(bx - maxBx)),
+                Math.max(Math.abs(by - minBy), Math.abs(by - maxBy)));
+        Vehicle best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int r = 0; r <= maxRing; r++) {
+            if (best != null && (r - 1) * BUCKET_SIZE + 1 > bestDistance) break;
+            for (int dx = -r; dx <= r; dx++) {
+                int step = (dx == -r || dx == r) ? 1 : 2 * r; // interior columns only touch the ring's edges
+                for (int dy = -r; dy <= r; dy += Math.max(1, step)) {
+                    List<Vehicle> bucket = buckets.get(key(bx + dx, by + dy));
+                    if (bucket == null) continue;
+                    for (Vehicle v : bucket) {
+                        int d = WarehouseGrid.distance(v.x, v.y, x, y);
+                        if (v.battery - (d + trip) * BATTERY_PER_CELL < BATTERY_RESERVE) continue;
+                        if (d < bestDistance || (d == bestDistance && v.battery > best.battery)) {
+                            best = v;
+                            bestDistance = d;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private void index(Vehicle v) {
+        int bx = Math.floorDiv(v.x, BUCKET_SIZE);
+        int by = Math.floorDiv(v.y, BUCKET_SIZE);
+        buckets.computeIfAbsent(key(bx, by), k -> new ArrayList<>()).add(v);
+        minBx = Math.min(minBx, bx);
+        maxBx = Math.max(maxBx, bx);
+        minBy = Math.min(minBy, by);
+        maxBy = Math.max(maxBy, by);
+    }
+
+    // Bounds only grow; an emptied bucket just costs an extra ring
+    private void unindex(Vehicle v) {
+        long k = key(Math.floorDiv(v.x, BUCKET_SIZE), Math.floorDiv(v.y, BUCKET_SIZE));
+        List<Vehicle> bucket = buckets.get(k);
+        if (bucket == null) return;
+        bucket.remove(v);
+        if (bucket.isEmpty()) buckets.remove(k);
+    }
+
+    private static long key(int bx, int by) {
+        return ((long) bx << 32) | (by & 0xffffffffL);
+    }
+
+    private static final class Vehicle {
+        final String id;
+        int x, y;
+        int battery;
+        boolean idle;
+
+        Vehicle(String id) {
+            this.id = id;
+        }
+    }
+
+    /** A task matched to an AGV; cost is the cells driven to the source and on to the destination. */
+    public static class Assignment {
+        private final Task task;
+        private final String agvId;
+        private final int cost;
+
+        Assignment(Task task, String agvId, int cost) {
+            this.task = task;
+            this.agvId = agvId;
+            this.cost = cost;
+        }
+
+        public Task getTask() { return task; }
+        public String getAgvId() { return agvId; }
+        public int getCost() { return cost; }
+    }
+}
@@ -0,0 +1,65 @@
+package TaskManagement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tasks of one order with the dependencies between them.
+ * A task can only depend on tasks already in the graph, so every graph is
+ * acyclic by construction and insertion order is a topological order.
+ */
+public class TaskGraph {
+
+    private final String orderId;
+    private final Map<Task, List<Task>> dependencies = new LinkedHashMap<>();
+
+    public TaskGraph(String orderId) {
+        this.orderId = orderId;
+    }
+
+    /** Standard fulfillment chain: pick at the location, move to loading, load onto an AGV, dispatch. */
+    public static TaskGraph forOrder(String orderId, String location, String destination) {
+        TaskGraph graph = new TaskGraph(orderId);
+        Task pick = graph.add(new Task(orderId + "-PICK", "PICK", location, "ARM", "PENDING"));
+        Task move = graph.add(new Task(orderId + "-MOVE", "MOVE", location, "LOADING", "PENDING"), pick);
+        Task load = graph.add(new Task(orderId + "-LOAD", "LOAD", "LOADING", "AGV", "PENDING"), move);
+        graph.add(new Task(orderId + "-DISPATCH", "DISPATCH", "AGV", destination, "PENDING"), load);
+        return graph;
+    }
+
+    public Task add(Task task, Task... dependsOn) {
+        if (dependencies.containsKey(task)) {
+            throw new IllegalArgumentException("Task already in graph: " + task.getId());
+        }
+        List<Task> deps = new ArrayList<>(dependsOn.length);
+        for (Task dep : dependsOn) {
+            if (!dependencies.containsKey(dep)) {
+                throw new IllegalArgumentException("Unknown dependency " + dep.getId() + " for " + task.getId());
+            }
+            deps.add(dep);
+        }
+        dependencies.put(task, Collections.unmodifiableList(deps));
+        return task;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    // In insertion (topological) order
+    public List<Task> getTasks() {
+        return new ArrayList<>(dependencies.keySet());
+    }
+
+    public List<Task> getDependencies(Task task) {
+        List<Task> deps = dependencies.get(task);
+        return deps == null ? List.of() : deps;
+    }
+
+    public int size() {
+        return dependencies.size();
+    }
+}
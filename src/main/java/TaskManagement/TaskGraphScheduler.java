@@ -0,0 +1,268 @@
+package TaskManagement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import Logging.Logger;
+import Logging.LoggerFactory;
+
+/**
+ * Runs task graphs on a fork-join pool.
+ * A task is forked as soon as its last dependency completes, so independent
+ * branches, within one order or across orders, run in parallel. Steps that
+ * block go through ForkJoinPool.managedBlock so the pool adds threads instead
+ * of stalling. When a task fails, everything downstream of it fails unrun.
+ * Each finished graph is reported with its critical path: the chain of
+ * dependent tasks that determined when the order completed.
+ */
+public class TaskGraphScheduler {
+
+    /** Executes one task; may block. */
+    @FunctionalInterface
+    public interface StepRunner {
+        void run(Task task) throws Exception;
+    }
+
+    private final ForkJoinPool pool;
+    private final StepRunner runner;
+    private final Logger logger;
+
+    public TaskGraphScheduler(int parallelism, StepRunner runner) {
+        this(new ForkJoinPool(parallelism), runner);
+    }
+
+    public TaskGraphScheduler(ForkJoinPool pool, StepRunner runner) {
+        this.pool = pool;
+        this.runner = runner;
+        this.logger = LoggerFactory.getLogger("TaskGraphScheduler");
+    }
+
+    /** Starts every task without dependencies; the future completes once the whole graph has settled. */
+    public CompletableFuture<GraphReport> submit(TaskGraph graph) {
+        Run run = new Run(graph);
+        if (graph.size() == 0) {
+            run.result.complete(run.report());
+            return run.result;
+        }
+        // collect roots first: a running root may already release its successors
+        List<Node> roots = new ArrayList<>();
+        for (Node node : run.nodes.values()) {
+            if (node.predecessors.isEmpty()) roots.add(node);
+        }
+        for (Node node : roots) pool.execute(() -> execute(run, node));
+        return run.result;
+    }
+
+    // finish() runs whatever happens, so the graph's future always completes
+    private void execute(Run run, Node node) {
+        Task task = node.task;
+        try {
+            if (node.skipped) {
+                task.fail();
+                return;
+            }
+            if (!task.start()) {
+                // started, finished or cancelled elsewhere: not ours to run or to fail
+                abandon(run, node, "Task " + task.getId() + " is " + task.getStatus() + ", not PENDING; step not run");
+                return;
+            }
+            node.startNanos = System.nanoTime();
+            try {
+                Blocker blocker = new Blocker(task);
+                ForkJoinPool.managedBlock(blocker);
+                if (blocker.failure != null) throw blocker.failure;
+                if (!task.complete()) {
+                    abandon(run, node, "Task " + task.getId() + " became " + task.getStatus() + " while running");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(run, node, e);
+            } catch (Exception e) {
+                fail(run, node, e);
+            } catch (Error e) {
+                fail(run, node, e);
+                throw e;
+            } finally {
+                node.endNanos = System.nanoTime();
+            }
+        } finally {
+            finish(run, node);
+        }
+    }
+
+    private void fail(Run run, Node node, Throwable e) {
+        node.task.fail();
+        abandon(run, node, "Task " + node.task.getId() + " failed: " + e.getMessage());
+    }
+
+    // Fails the graph downstream of the node without touching the task's own status
+    private void abandon(Run run, Node node, String reason) {
+        run.failed = true;
+        for (Node next : node.successors) next.skipped = true;
+        logger.logError("TaskGraphScheduler", reason);
+    }
+
+    // Releases successors whose last dependency this was; the final node completes the run
+    private void finish(Run run, Node node) {
+        for (Node next : node.successors) {
+            if (node.skipped) next.skipped = true;
+            if (next.pending.decrementAndGet() == 0) pool.execute(() -> execute(run, next));
+        }
+        if (run.remaining.decrementAndGet() == 0) {
+            GraphReport report = run.report();
+            logger.logInfo("TaskGraphScheduler", report.toString());
+            run.result.complete(report);
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Blocker implements ForkJoinPool.ManagedBlocker {
+        private final Task task;
+        private boolean done;
+        Exception failure;
+
+        Blocker(Task task) {
+            this.task = task;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            try {
+                runner.run(task);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                failure = e;
+            }
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    private static final class Node {
+        final Task task;
+        final List<Node> predecessors = new ArrayList<>();
+        final List<Node> successors = new ArrayList<>();
+        final AtomicInteger pending = new AtomicInteger();
+        // written before the successors are released, read after all of them settle
+        volatile boolean skipped;
+        volatile long startNanos;
+        volatile long endNanos;
+
+        Node(Task task) {
+            this.task = task;
+        }
+
+        long durationNanos() {
+            return endNanos == 0 ? 0 : endNanos - startNanos;
+        }
+    }
+
+    private static final class Run {
+        final TaskGraph graph;
+        final Map<Task, Node> nodes = new IdentityHashMap<>();
+        final AtomicInteger remaining;
+        final CompletableFuture<GraphReport> result = new CompletableFuture<>();
+        final long submittedNanos = System.nanoTime();
+        volatile boolean failed;
+
+        Run(TaskGraph graph) {
+            this.graph = graph;
+            for (Task task : graph.getTasks()) {
+                Node node = new Node(task);
+                for (Task dep : graph.getDependencies(task)) {
+                    Node before = nodes.get(dep);
+                    node.predecessors.add(before);
+                    before.successors.add(node);
+                }
+                node.pending.set(node.predecessors.size());
+                nodes.put(task, node);
+            }
+            this.remaining = new AtomicInteger(nodes.size());
+        }
+
+        // Walks back from the last task to finish through the predecessor that released it
+        GraphReport report() {
+            long makespan = 0;
+            Node last = null;
+            for (Node node : nodes.values()) {
+                if (node.endNanos != 0 && (last == null || node.endNanos > last.endNanos)) last = node;
+            }
+            List<Task> path = new ArrayList<>();
+            long pathNanos = 0;
+            if (last != null) {
+                makespan = last.endNanos - submittedNanos;
+                for (Node node = last; node != null; node = latestPredecessor(node)) {
+                    path.add(node.task);
+                    pathNanos += node.durationNanos();
+                }
+                Collections.reverse(path);
+            }
+            return new GraphReport(graph.getOrderId(), !failed, makespan, pathNanos, path);
+        }
+
+        private static Node latestPredecessor(Node node) {
+            Node latest = null;
+            for (Node p : node.predecessors) {
+                if (latest == null || p.endNanos > latest.endNanos) latest = p;
+            }
+            return latest;
+        }
+    }
+
+    /** Outcome of one graph: total latency and the chain of tasks that bounded it. */
+    public static class GraphReport {
+        private final String orderId;
+        private final boolean succeeded;
+        private final long latencyNanos;
+        private final long criticalPathNanos;
+        private final List<Task> criticalPath;
+
+        GraphReport(String orderId, boolean succeeded, long latencyNanos, long criticalPathNanos, List<Task> criticalPath) {
+            this.orderId = orderId;
+            this.succeeded = succeeded;
+            this.latencyNanos = latencyNanos;
+            this.criticalPathNanos = criticalPathNanos;
+            this.criticalPath = Collections.unmodifiableList(criticalPath);
+        }
+
+        public String getOrderId() { return orderId; }
+        public boolean isSucceeded() { return succeeded; }
+        // From submit until the last task finished
+        public long getLatencyNanos() { return latencyNanos; }
+        // Time spent executing the tasks on the critical path
+        public long getCriticalPathNanos() { return criticalPathNanos; }
+        public List<Task> getCriticalPath() { return criticalPath; }
+
+        @Override
+        public String toString() {
+            List<String> ids = new ArrayList<>();
+            for (Task t : criticalPath) ids.add(t.getId());
+            return String.format("Order %s %s in %d ms, critical path %s (%d ms)", orderId,
+                    succeeded ? "completed" : "failed", TimeUnit.NANOSECONDS.toMillis(latencyNanos),
+                    String.join(" -> ", ids), TimeUnit.NANOSECONDS.toMillis(criticalPathNanos));
+        }
+    }
+}
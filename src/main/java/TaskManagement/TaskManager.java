@@ -1,88 +1,293 @@
 package TaskManagement;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import Logging.SystemLogger;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import Concurrency.BoundedExecutor;
+import Concurrency.ExecutionMode;
+import Logging.Logger;
+import Logging.LoggerFactory;
 
-public class TaskManager implements TaskAssignable {
+/**
+ * Queues tasks and runs them on a fixed set of workers.
+ * Workers pull from the TaskQueue only when they are free, so the queue
+ * always reflects the work still pending. At most maxInFlight tasks may be
+ * admitted and not yet finished; producers block (or time out) beyond that.
+ * Workers run on platform or virtual threads according to the ExecutionMode.
+ */
+public final class TaskManager implements TaskAssignable {
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1024;
 
     private TaskQueue taskQueue;
     private ExecutorService executor;
-    private SystemLogger logger;
+    private Logger logger;
+    private final int workerCount;
+    private final Semaphore admission;
+    private final Set<Task> inFlight = ConcurrentHashMap.newKeySet();
+    private final Object lifecycle = new Object();
+    private volatile boolean accepting = true;
+    private volatile boolean draining;
+    private boolean started;
 
     public TaskManager(int parallelTasks) {
+        this(parallelTasks, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public TaskManager(int parallelTasks, int maxInFlight) {
+        this(parallelTasks, maxInFlight, ExecutionMode.fromSystemProperty());
+    }
+
+    public TaskManager(int parallelTasks, int maxInFlight, ExecutionMode mode) {
+        if (parallelTasks < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("parallelTasks and maxInFlight must be positive");
+        }
         this.taskQueue = new TaskQueue();
-        this.executor = Executors.newFixedThreadPool(parallelTasks);
-        this.logger = new SystemLogger();
+        this.executor = new BoundedExecutor("task-worker", parallelTasks, mode);
+        this.workerCount = parallelTasks;
+        this.admission = new Semaphore(maxInFlight);
+        this.logger = LoggerFactory.getLogger("TaskManager");
+        // tasks whose deadline passed while queued are failed instead of run (final class, so no this-escape)
+        this.taskQueue.setExpiryHandler(this::failTask);
     }
 
     public TaskQueue getTaskQueue() {
         return taskQueue;
     }
     
+    /**
+     * Blocks while maxInFlight tasks are already admitted. Without running
+     * workers nothing is sure to free a slot, so a full manager whose
+     * processTasks() was never called rejects the task instead of waiting.
+     */
     public void queueTask(Task task) {
+        try {
+            while (!offerTask(task, 100, TimeUnit.MILLISECONDS)) {
+                // keep waiting for capacity; offerTask throws once we are shut down
+                if (!isStarted()) {
+                    throw new RejectedExecutionException("No task workers running to free capacity for task "
+                            + task.getId() + "; call processTasks() first or use offerTask()");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing task " + task.getId());
+        }
+    }
+
+    /** Queues the task if capacity frees up within the timeout; false otherwise. */
+    public boolean offerTask(Task task, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!accepting) {
+            throw new RejectedExecutionException("TaskManager is shut down");
+        }
+        if (!admission.tryAcquire(timeout, unit)) {
+            return false;
+        }
+        if (!accepting) {
+            admission.release();
+            throw new RejectedExecutionException("TaskManager is shut down");
+        }
+        inFlight.add(task);
         taskQueue.addTask(task);
-        logger.logInfo("TaskManager", "Task added to queue: " + task.getId());
+        logger.logInfo("TaskManager", () -> "Task added to queue: " + task.getId());
+        return true;
     }
 
     @Override
-    public void createTask(String type, String source, String destination, String status, String createdAt) {
-        Task task = new Task(type, source, destination, status, createdAt);
-        taskQueue.addTask(task);
-        logger.logInfo("TaskManager", "Created task: " + task);
+    public void createTask(String id, String type, String source, String destination, String status) {
+        Task task = new Task(id, type, source, destination, status);
+        queueTask(task);
+        logger.logInfo("TaskManager", () -> "Created task: " + task);
     }
 
     @Override
     public void assignTask(Task task) {
-        task.setStatus("IN_PROGRESS");
-        logger.logInfo("TaskManager", "Assigned task: " + task);
+        tryAssign(task);
+    }
+
+    // Starts the task; one that cannot start and is not running elsewhere is dropped and its slot freed
+    private boolean tryAssign(Task task) {
+        if (!task.start()) {
+            TaskStatus status = task.getTaskStatus();
+            if (status != TaskStatus.IN_PROGRESS) release(task);
+            logger.logWarning("TaskManager", "Task " + task.getId() + " is " + status + ", not PENDING; not assigned.");
+            return false;
+        }
+        logger.logInfo("TaskManager", () -> "Assigned task: " + task);
+        return true;
     }
 
     @Override
     public void completeTask(Task task) {
-        task.setStatus("COMPLETED");
-        logger.logInfo("TaskManager", "Completed task: " + task.getId());
+        boolean won = task.complete();
+        release(task);
+        if (!won) {
+            // lost a race, e.g. against an expiry or shutdownNow failing it
+            logger.logWarning("TaskManager", "Task " + task.getId() + " already " + task.getStatus() + "; completion ignored.");
+            return;
+        }
+        logger.logInfo("TaskManager", () -> "Completed task: " + task.getId());
     }
 
     @Override
     public void failTask(Task task) {
-        task.setStatus("FAILED");
+        boolean won = task.fail();
+        release(task);
+        if (!won) {
+            logger.logWarning("TaskManager", "Task " + task.getId() + " already " + task.getStatus() + "; failure ignored.");
+            return;
+        }
         logger.logError("TaskManager", "Failed task: " + task.getId());
     }
 
+    // Frees the admission slot once per task, however it finished
+    private void release(Task task) {
+        if (inFlight.remove(task)) {
+            admission.release();
+        }
+    }
+
+    // Skips queued tasks that can no longer start; null once the queue is empty
     public Task assignNextTask() {
-        if (taskQueue.isEmpty()) {
-            return null;
+        Task next;
+        while ((next = taskQueue.getNextTask()) != null) {
+            if (tryAssign(next)) return next;
         }
-        Task next = taskQueue.getNextTask();
-        assignTask(next);
-        return next;
+        return null;
     }
 
+    /**
+     * One assignment tick: takes up to maxBatch queued tasks, matches them to
+     * idle AGVs in one pass and puts the unmatched ones back in the queue.
+     * A matched task that can no longer start is dropped and its AGV freed,
+     * so only started tasks are returned.
+     */
+    public List<TaskAssigner.Assignment> assignPendingTasks(TaskAssigner assigner, int maxBatch) {
+        List<TaskQueue.Entry> entries = new ArrayList<>();
+        TaskQueue.Entry next;
+        while (entries.size() < maxBatch && (next = taskQueue.pollEntry()) != null) {
+            entries.add(next);
+        }
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        List<Task> batch = new ArrayList<>(entries.size());
+        for (TaskQueue.Entry entry : entries) batch.add(entry.getTask());
+        List<TaskAssigner.Assignment> assignments = assigner.assign(batch);
+        List<TaskAssigner.Assignment> started = new ArrayList<>(assignments.size());
+        Set<Task> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TaskAssigner.Assignment a : assignments) {
+            matched.add(a.getTask());
+            if (!tryAssign(a.getTask())) {
+                assigner.release(a);
+                continue;
+            }
+            started.add(a);
+            logger.logInfo("TaskManager", () -> "Assigned task " + a.getTask().getId() + " to " + a.getAgvId() + " (cost " + a.getCost() + ")");
+        }
+        // Unmatched tasks go back where they were, keeping priority and deadline;
+        // they are already admitted, so no new slot
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (!matched.contains(entries.get(i).getTask())) taskQueue.restore(entries.get(i));
+        }
+        return started;
+    }
+
+    private boolean isStarted() {
+        synchronized (lifecycle) {
+            return started;
+        }
+    }
+
+    /** Starts the workers; they keep pulling tasks until shutdown. */
     public void processTasks() {
-        while (!taskQueue.isEmpty()) {
-            Task task = assignNextTask();
-
-            executor.submit(new Runnable() {
-                @Override
-                public void run() {
-                    try {
-                        Thread.sleep(1000); 
-                        completeTask(task);
-                    } catch (Exception e) {
-                        failTask(task);
-                    }
+        synchronized (lifecycle) {
+            if (started || !accepting) {
+                return;
+            }
+            started = true;
+            for (int i = 0; i < workerCount; i++) {
+                executor.submit(this::work);
+            }
+        }
+        logger.logInfo("TaskManager", "Started " + workerCount + " task workers.");
+    }
+
+    private void work() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Task task = taskQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (task == null) {
+                    if (draining) return;
+                    continue;
+                }
+                if (!tryAssign(task)) continue; // dropped and released, already logged
+                try {
+                    execute(task);
+                    completeTask(task);
+                } catch (InterruptedException e) {
+                    failTask(task);
+                    return;
+                } catch (Exception e) {
+                    failTask(task);
                 }
-            });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
+    // Simulated task execution
+    private void execute(Task task) throws InterruptedException {
+        Thread.sleep(1000);
+    }
+
     public boolean hasPendingTasks() {
         return !taskQueue.isEmpty();
     }
 
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /** Stops admitting tasks, lets the workers finish everything queued, then stops them. */
     public void shutdown() {
+        accepting = false;
+        draining = true;
         executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.logWarning("TaskManager", "Workers did not drain in time; " + taskQueue.size() + " tasks left queued.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         logger.logInfo("TaskManager", "Executor service shutdown.");
     }
+
+    /** Stops admitting tasks, interrupts running ones and returns the tasks that never started. */
+    public List<Task> shutdownNow() {
+        accepting = false;
+        executor.shutdownNow();
+        List<Task> abandoned = new ArrayList<>();
+        Task task;
+        while ((task = taskQueue.getNextTask()) != null) {
+            abandoned.add(task);
+            release(task);
+        }
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.logInfo("TaskManager", "Executor service stopped; abandoned " + abandoned.size() + " queued tasks.");
+        return abandoned;
+    }
 }
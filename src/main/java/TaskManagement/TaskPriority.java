@@ -0,0 +1,26 @@
+package TaskManagement;
+
+/**
+ * Priority classes of the task queue, most urgent first.
+ */
+public enum TaskPriority {
+    URGENT, HIGH, NORMAL, LOW;
+
+    // Default class for a task type: order picks before moves before restocking
+    public static TaskPriority forType(String type) {
+        return forType(TaskType.parse(type));
+    }
+
+    public static TaskPriority forType(TaskType type) {
+        switch (type) {
+            case PICK:
+            case DISPENSE:
+            case RETRIEVE:
+                return HIGH;
+            case RESTOCK:
+                return LOW;
+            default:
+                return NORMAL;
+        }
+    }
+}
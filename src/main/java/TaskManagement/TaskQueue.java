@@ -1,25 +1,141 @@
 package TaskManagement;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+/**
+ * Thread-safe task queue with priority classes.
+ * Each class is a lock-free FIFO; a semaphore counts queued tasks so workers
+ * can block in take() while producers never wait. A task may carry a
+ * deadline: once it has passed, the task is handed to the expiry handler
+ * instead of being returned. A dequeued entry can be restored to the head of
+ * its class with its priority and deadline unchanged.
+ */
 public class TaskQueue {
-    private Queue<Task> queue = new LinkedList<>();
+
+    // Iterates in priority order, URGENT first
+    private final Map<TaskPriority, ConcurrentLinkedDeque<Entry>> classes = new EnumMap<>(TaskPriority.class);
+    private final Semaphore available = new Semaphore(0);
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile Consumer<Task> expiryHandler;
+
+    public TaskQueue() {
+        for (TaskPriority priority : TaskPriority.values()) classes.put(priority, new ConcurrentLinkedDeque<>());
+    }
 
     public void addTask(Task task) {
-        queue.add(task);
+        addTask(task, TaskPriority.forType(task.getTaskType()));
+    }
+
+    public void addTask(Task task, TaskPriority priority) {
+        addTask(task, priority, Long.MAX_VALUE);
+    }
+
+    /** deadlineMillis is an epoch time after which the task is expired instead of run. */
+    public void addTask(Task task, TaskPriority priority, long deadlineMillis) {
+        classes.get(priority).offer(new Entry(task, priority, deadlineMillis));
+        size.incrementAndGet();
+        available.release(); // after the offer, so a permit always has a task behind it
     }
 
+    // Next task without waiting, or null
     public Task getNextTask() {
-        return queue.poll();
+        Entry entry = pollEntry();
+        return entry == null ? null : entry.task;
+    }
+
+    /** Like getNextTask(), but keeps what restore() needs to put the task back. */
+    public Entry pollEntry() {
+        while (available.tryAcquire()) {
+            Entry entry = removeFirst();
+            if (entry != null) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Puts an entry back at the head of its class with its priority and
+     * deadline unchanged. Restore a batch in reverse order to keep its order.
+     */
+    public void restore(Entry entry) {
+        classes.get(entry.priority).offerFirst(entry);
+        size.incrementAndGet();
+        available.release();
+    }
+
+    /** Blocks until a task is available. */
+    public Task take() throws InterruptedException {
+        while (true) {
+            available.acquire();
+            Entry entry = removeFirst();
+            if (entry != null) return entry.task;
+        }
+    }
+
+    // Waits up to the timeout; null if nothing arrived
+    public Task poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (available.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            Entry entry = removeFirst();
+            if (entry != null) return entry.task;
+        }
+        return null;
+    }
+
+    // Called with a permit held, so one of the classes holds an entry for us
+    private Entry removeFirst() {
+        Entry entry = null;
+        while (entry == null) {
+            for (ConcurrentLinkedDeque<Entry> q : classes.values()) {
+                entry = q.poll();
+                if (entry != null) break;
+            }
+        }
+        size.decrementAndGet();
+        if (entry.deadlineMillis != Long.MAX_VALUE && System.currentTimeMillis() > entry.deadlineMillis) {
+            Consumer<Task> handler = expiryHandler;
+            if (handler != null) handler.accept(entry.task);
+            return null;
+        }
+        return entry;
+    }
+
+    /** Receives tasks whose deadline passed while they were queued. */
+    public void setExpiryHandler(Consumer<Task> expiryHandler) {
+        this.expiryHandler = expiryHandler;
     }
 
     public boolean isEmpty() {
-        return queue.isEmpty();
+        return size.get() == 0;
     }
 
     public int size() {
-        return queue.size();
+        return size.get();
     }
-}
 
+    public int size(TaskPriority priority) {
+        return classes.get(priority).size();
+    }
+
+    /** A dequeued task with the priority and deadline it was queued under. */
+    public static final class Entry {
+        final Task task;
+        final TaskPriority priority;
+        final long deadlineMillis;
+
+        Entry(Task task, TaskPriority priority, long deadlineMillis) {
+            this.task = task;
+            this.priority = priority;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package TaskManagement;
+
+import java.util.Locale;
+import Logging.LoggerFactory;
+
+/**
+ * Task lifecycle: PENDING -> IN_PROGRESS -> COMPLETED or FAILED.
+ * A pending task may also fail without running (expired, abandoned or
+ * skipped after a failed dependency). COMPLETED and FAILED are final.
+ */
+public enum TaskStatus {
+    PENDING, IN_PROGRESS, COMPLETED, FAILED;
+
+    public boolean canMoveTo(TaskStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == IN_PROGRESS || next == FAILED;
+            case IN_PROGRESS:
+                return next == COMPLETED || next == FAILED;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isFinal() {
+        return this == COMPLETED || this == FAILED;
+    }
+
+    /**
+     * Status for a stored or user-supplied name, ignoring case. The legacy
+     * CREATED (an order status that older data used for tasks too) maps to
+     * PENDING with a warning; any other unknown value is rejected.
+     */
+    public static TaskStatus parse(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Task status is missing");
+        }
+        String key = name.trim().toUpperCase(Locale.ROOT);
+        if (key.equals("CREATED")) {
+            LoggerFactory.getLogger("TaskStatus").logWarning("TaskStatus", "Legacy task status CREATED read as PENDING");
+            return PENDING;
+        }
+        try {
+            return valueOf(key);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown task status: " + name);
+        }
+    }
+}
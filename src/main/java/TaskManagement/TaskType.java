@@ -0,0 +1,20 @@
+package TaskManagement;
+
+import java.util.Locale;
+
+/**
+ * Known task types. Anything else parses to OTHER; Task keeps the original
+ * name for those, so callers still see the type they created the task with.
+ */
+public enum TaskType {
+    PICK, MOVE, LOAD, UNLOAD, DISPATCH, CHARGE, DISPENSE, RETRIEVE, RESTOCK, OTHER;
+
+    public static TaskType parse(String name) {
+        if (name == null) return OTHER;
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return OTHER;
+        }
+    }
+}
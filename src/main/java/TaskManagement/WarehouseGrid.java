@@ -0,0 +1,49 @@
+package TaskManagement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Grid coordinates for warehouse locations.
+ * Locations can be placed explicitly; any other id is laid out from its name:
+ * the letters pick an aisle, the trailing number the slot along it
+ * (S12 is slot 12 of aisle S). Travel cost is the Manhattan distance in cells.
+ */
+public class WarehouseGrid {
+
+    // Cells between neighbouring aisles
+    static final int AISLE_SPACING = 4;
+
+    private final Map<String, int[]> placed = new ConcurrentHashMap<>();
+    private final Map<String, Integer> aisles = new ConcurrentHashMap<>();
+    // Next free aisle row; map size is not safe to read inside computeIfAbsent
+    private final AtomicInteger nextAisle = new AtomicInteger();
+
+    public void place(String locationId, int x, int y) {
+        placed.put(locationId, new int[]{x, y});
+    }
+
+    /** {x, y} of the location. */
+    public int[] cellOf(String locationId) {
+        int[] cell = placed.get(locationId);
+        if (cell != null) return cell;
+        int end = locationId.length();
+        while (end > 0 && Character.isDigit(locationId.charAt(end - 1))) end--;
+        String aisle = locationId.substring(0, end);
+        int slot = end == locationId.length() || locationId.length() - end > 9
+                ? 0 : Integer.parseInt(locationId.substring(end));
+        int row = aisles.computeIfAbsent(aisle, a -> nextAisle.getAndIncrement()) * AISLE_SPACING;
+        return new int[]{slot, row};
+    }
+
+    public int distance(String from, String to) {
+        int[] a = cellOf(from);
+        int[] b = cellOf(to);
+        return distance(a[0], a[1], b[0], b[1]);
+    }
+
+    static int distance(int x1, int y1, int x2, int y2) {
+        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.platform.suite.api.Suite;
 @Suite
 @SelectPackages({
     "ChargingStation",     
+    "Concurrency",
+    "Logging",
     "Exceptions",          
     "StorageManagement",   
     "TaskManagement",
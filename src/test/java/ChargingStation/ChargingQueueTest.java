@@ -0,0 +1,129 @@
+package ChargingStation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ChargingQueueTest {
+
+    @Test
+    public void testUrgentBeforeNormal() {
+        long now = System.currentTimeMillis();
+        ChargingQueue queue = new ChargingQueue();
+        queue.add(new AGV("AGV-1", 50, false, now - 1000));
+        queue.add(new AGV("AGV-2", 50, true, now));
+
+        assertEquals("AGV-2", queue.poll().getId());
+        assertEquals("AGV-1", queue.poll().getId());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testLowBatteryBeforeHighBattery() {
+        long now = System.currentTimeMillis();
+        ChargingQueue queue = new ChargingQueue();
+        queue.add(new AGV("AGV-HIGH", 90, false, now));
+        queue.add(new AGV("AGV-LOW", 5, false, now));
+
+        assertEquals("AGV-LOW", queue.peek().getId());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void testAgingPreventsStarvation() {
+        long now = System.currentTimeMillis();
+        ChargingQueue queue = new ChargingQueue();
+        // waited longer than the urgent boost, so a fresh urgent AGV may not overtake it
+        queue.add(new AGV("AGV-OLD", 100, false, now - AGV.URGENT_BOOST_MS - 5_000));
+        queue.add(new AGV("AGV-URGENT", 100, true, now));
+
+        assertEquals("AGV-OLD", queue.poll().getId());
+    }
+
+    @Test
+    public void testExpiredAGVsPurgedAnywhereInQueue() {
+        long now = System.currentTimeMillis();
+        List<AGV> dropped = new ArrayList<>();
+        ChargingQueue queue = new ChargingQueue(10, dropped::add);
+        queue.add(new AGV("AGV-URGENT", 50, true, now));
+        queue.add(new AGV("AGV-STALE", 100, false, now - 11_000)); // behind the urgent one
+        queue.add(new AGV("AGV-NEW", 50, false, now));
+
+        assertEquals(1, queue.purgeExpired());
+        assertEquals(1, dropped.size());
+        assertEquals("AGV-STALE", dropped.get(0).getId());
+        assertEquals(2, queue.size());
+        assertEquals("AGV-URGENT", queue.poll().getId());
+        assertEquals("AGV-NEW", queue.poll().getId());
+    }
+
+    @Test
+    public void testTakeBlocksUntilArrival() throws InterruptedException {
+        ChargingQueue queue = new ChargingQueue();
+        AGV[] taken = new AGV[1];
+        Thread consumer = new Thread(() -> {
+            try {
+                taken[0] = queue.take();
+            } catch (InterruptedException ignored) {}
+        });
+        consumer.start();
+        Thread.sleep(100);
+        assertNull(taken[0]);
+
+        queue.add(new AGV("AGV-T", 40, false));
+        consumer.join(1000);
+        assertEquals("AGV-T", taken[0].getId());
+    }
+
+    @Test
+    public void testChurnDoesNotAccumulateDeadEntries() {
+        ChargingQueue queue = new ChargingQueue(3_600, null); // deadlines far in the future
+        for (int i = 0; i < 100_000; i++) {
+            queue.add(new AGV("AGV-" + i, 50, false));
+            if (i % 10 != 0) queue.poll();
+        }
+        int live = queue.size();
+        assertEquals(10_000, live);
+        assertTrue(queue.heapEntries() <= 4 * live + 256, "heaps hold " + queue.heapEntries() + " entries");
+    }
+
+    @Test
+    public void testPreemptedAgvQueuesBehindUrgentRequester() {
+        ChargingQueue queue = new ChargingQueue();
+        long now = System.currentTimeMillis();
+        AGV preempted = new AGV("AGV-OLD", 40, false, now - 600_000); // arrived long ago
+        AGV urgent = new AGV("AGV-URGENT", 60, true, now);
+        AGV waiting = new AGV("AGV-WAITING", 70, false, now);
+
+        queue.add(urgent);
+        queue.add(waiting);
+        queue.requeue(preempted);
+
+        assertEquals("AGV-URGENT", queue.poll().getId());
+        assertEquals("AGV-WAITING", queue.poll().getId());
+        assertEquals("AGV-OLD", queue.poll().getId());
+    }
+
+    @Test
+    public void testSnapshotMatchesPollOrder() {
+        ChargingQueue queue = new ChargingQueue();
+        long now = System.currentTimeMillis();
+        AGV high = new AGV("AGV-HIGH", 90, false, now);
+        queue.add(new AGV("AGV-URGENT", 60, true, now));
+        queue.add(high);
+        queue.add(new AGV("AGV-LOW", 20, false, now));
+        queue.requeue(new AGV("AGV-OLD", 40, false, now - 600_000));
+        high.setBatteryLevel(1); // drains while queued; its place was fixed on arrival
+
+        List<String> snapshot = new ArrayList<>();
+        for (AGV agv : queue.snapshot()) snapshot.add(agv.getId());
+        List<String> polled = new ArrayList<>();
+        AGV next;
+        while ((next = queue.poll()) != null) polled.add(next.getId());
+
+        assertEquals(4, polled.size());
+        assertEquals(polled, snapshot);
+    }
+}
@@ -0,0 +1,58 @@
+package ChargingStation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.Test;
+
+public class ChargingSchedulerTest {
+
+    @Test
+    public void testTargetFollowsDemand() {
+        ChargingScheduler scheduler = new ChargingScheduler();
+        AGV agv = new AGV("AGV-1", 10, false);
+        assertEquals(100, scheduler.targetSoc(agv), "no demand information -> full charge");
+
+        scheduler.setDemand(() -> 0, 10);
+        assertEquals(60, scheduler.targetSoc(agv));
+
+        scheduler.setDemand(() -> 100, 10); // 10 tasks per AGV
+        assertEquals(70, scheduler.targetSoc(agv));
+
+        scheduler.setDemand(() -> 1000, 10);
+        assertEquals(100, scheduler.targetSoc(agv));
+        assertEquals(100, scheduler.targetSoc(new AGV("AGV-U", 10, true)));
+    }
+
+    @Test
+    public void testPreemptsFullestNonUrgentCharge() throws Exception {
+        ChargingScheduler scheduler = new ChargingScheduler();
+        ChargingStation slow = new ChargingStation("ST-1", 1.0);
+        ChargingStation fast = new ChargingStation("ST-2", 1.0);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<ChargingStation.ChargeOutcome> low = pool.submit(() -> slow.charge(new AGV("AGV-LOW", 35, false), 100));
+        Future<ChargingStation.ChargeOutcome> high = pool.submit(() -> fast.charge(new AGV("AGV-HIGH", 70, false), 100));
+        Thread.sleep(150);
+
+        assertNull(scheduler.selectPreemption(new AGV("AGV-N", 5, false), Arrays.asList(slow, fast)));
+        ChargingStation victim = scheduler.selectPreemption(new AGV("AGV-U", 5, true), Arrays.asList(slow, fast));
+        if (fast.getCurrentAgv() != null) {
+            assertSame(fast, victim);
+        }
+
+        slow.requestPreemption();
+        fast.requestPreemption();
+        assertNotEquals(ChargingStation.ChargeOutcome.COMPLETED, low.get(2, TimeUnit.SECONDS));
+        assertNotEquals(ChargingStation.ChargeOutcome.COMPLETED, high.get(2, TimeUnit.SECONDS));
+        assertNull(slow.getCurrentAgv());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testEstimateUsesStationRate() {
+        ChargingStation station = new ChargingStation("ST-9", 20.0);
+        assertEquals(2000, station.estimateChargeMillis(40, 80));
+        assertEquals(0, station.estimateChargeMillis(90, 80));
+    }
+}
@@ -1,6 +1,7 @@
 package ChargingStation;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
 import java.util.*;
 import Exceptions.ChargingException;
 
@@ -50,4 +51,111 @@ public class ChargingSimulationTest {
         Thread.sleep(2000);
         manager.shutdown();
     }
+
+    @Test
+    public void testEveryStationChargesConcurrently() throws InterruptedException {
+        List<String> stationIds = Arrays.asList("ST-01", "ST-02", "ST-03");
+        ChargingManager manager = new ChargingManager(stationIds, 15);
+        for (int i = 0; i < 3; i++) {
+            manager.submitAGV(new AGV("AGV-C" + i, 10, false));
+        }
+
+        // charging takes at least 500 ms, so all three must be assigned before any finishes
+        Thread.sleep(300);
+        assertEquals(3, manager.getDispatchLatency().getCount());
+        assertTrue(manager.getQueue().isEmpty());
+        manager.shutdown();
+    }
+
+    @Test
+    public void testUrgentAgvTakesTheIdleStationInsteadOfPreempting() throws InterruptedException {
+        ChargingManager manager = new ChargingManager(Arrays.asList("ST-01", "ST-02"), 15);
+        AGV charging = new AGV("AGV-N", 40, false);
+        manager.submitAGV(charging);
+        // the dispatcher now holds ST-02 while it waits for the next AGV
+        Thread.sleep(100);
+        manager.submitAGV(new AGV("AGV-U", 10, true));
+
+        Thread.sleep(300); // charging 40% -> 100% takes 600 ms, so AGV-N is still on its station
+        assertEquals(2, manager.getDispatchLatency().getCount());
+        assertTrue(manager.getQueue().isEmpty());
+        manager.shutdown();
+    }
+
+    @Test
+    public void testPreemptionRequestedBeforeChargeStartsIsHonoured() {
+        ChargingStation station = new ChargingStation("ST-P", ChargingStation.DEFAULT_RATE_PERCENT_PER_SECOND, new VirtualClock(0));
+        AGV agv = new AGV("AGV-P", 40, false, 0);
+        station.begin(agv, 100);
+        station.requestPreemption(); // lands between assignment and charge()
+
+        // FAILED covers the station's random malfunction; either way nothing is charged
+        assertNotEquals(ChargingStation.ChargeOutcome.COMPLETED, station.charge(agv, 100));
+        assertEquals(40, agv.getBatteryLevel());
+    }
+
+    @Test
+    public void testSubmitAfterShutdownIsRejected() {
+        ChargingManager manager = new ChargingManager(Arrays.asList("ST-01"), 15);
+        manager.submitAGV(new AGV("AGV-1", 50, false));
+        manager.shutdown();
+        assertThrows(java.util.concurrent.RejectedExecutionException.class,
+                () -> manager.submitAGV(new AGV("AGV-2", 50, false)));
+    }
+
+    @Test
+    public void testFleetScaleSimulation() {
+        long start = System.nanoTime();
+        ChargingSimulation.Report report = new ChargingSimulation(new ChargingSimulation.Config()
+                .agvs(10_000).stations(1_000)).run();
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(wallMillis < 30_000, "simulation should run far faster than real time");
+        assertEquals(10_000, report.getAgvs());
+        assertTrue(report.getCharged() + report.getDropped() >= 10_000, report.toString());
+        assertTrue(report.getMakespanMillis() >= 3_000_000, report.toString());
+        assertTrue(report.getStationUtilization() > 0 && report.getStationUtilization() <= 1.0);
+        assertTrue(report.getWaitPercentileMillis(50) <= report.getWaitPercentileMillis(95));
+        assertTrue(report.getWaitPercentileMillis(95) <= report.getWaitPercentileMillis(99));
+        assertTrue(report.getWaitPercentileMillis(100) <= 1_800_000);
+        assertTrue(report.getDropRate() < 0.05);
+    }
+
+    @Test
+    public void testDispatcherChargesFleetOnVirtualClock() throws InterruptedException {
+        List<String> stationIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) stationIds.add("ST-" + i);
+        ChargingManager manager = new ChargingManager(stationIds, 1_800, new VirtualClock(0));
+        List<AGV> fleet = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            AGV agv = new AGV("AGV-V" + i, 50, false, 0);
+            fleet.add(agv);
+            manager.submitAGV(agv);
+        }
+
+        // the real dispatcher and ChargingStation.charge; virtual sleeps return at once
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((manager.getDispatchLatency().getCount() < 200 || manager.getFreeStationCount() < 20)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        manager.shutdown();
+
+        assertEquals(200, manager.getDispatchLatency().getCount());
+        assertEquals(0, manager.getDroppedCount());
+        // stations fail at random 2% of the time
+        long full = fleet.stream().filter(agv -> agv.getBatteryLevel() == 100).count();
+        assertTrue(full >= 180, "charged to full: " + full);
+    }
+
+    @Test
+    public void testSimulationIsDeterministic() {
+        ChargingSimulation.Config config = new ChargingSimulation.Config()
+                .agvs(2_000).stations(50).urgentFraction(0.2).seed(7);
+        ChargingSimulation.Report first = new ChargingSimulation(config).run();
+        ChargingSimulation.Report second = new ChargingSimulation(config).run();
+        assertEquals(first.toString(), second.toString());
+        assertTrue(first.getPreemptions() > 0);
+        assertTrue(first.getDropped() > 0);
+    }
 }
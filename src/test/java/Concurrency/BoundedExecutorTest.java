@@ -0,0 +1,71 @@
+package Concurrency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BoundedExecutorTest {
+
+    @Test
+    void testSemaphoreCapsConcurrencyOnVirtualThreads() throws InterruptedException {
+        BoundedExecutor executor = new BoundedExecutor("test", 3, ExecutionMode.VIRTUAL);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(30);
+        for (int i = 0; i < 30; i++) {
+            executor.execute(() -> {
+                int now = running.incrementAndGet();
+                peak.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ignored) {
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, peak.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testHundredThousandSleepingTasksOnVirtualThreads() throws InterruptedException {
+        int tasks = 100_000;
+        BoundedExecutor executor = new BoundedExecutor("orders", tasks, ExecutionMode.VIRTUAL);
+        CountDownLatch done = new CountDownLatch(tasks);
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(millis < 20_000, "100k sleeping tasks took " + millis + " ms");
+        executor.shutdown();
+    }
+
+    @Test
+    void testModeFromSystemProperty() {
+        String previous = System.getProperty(ExecutionMode.PROPERTY);
+        try {
+            System.setProperty(ExecutionMode.PROPERTY, "virtual");
+            assertEquals(ExecutionMode.VIRTUAL, ExecutionMode.fromSystemProperty());
+            System.setProperty(ExecutionMode.PROPERTY, "bogus");
+            assertEquals(ExecutionMode.PLATFORM, ExecutionMode.fromSystemProperty());
+        } finally {
+            if (previous == null) System.clearProperty(ExecutionMode.PROPERTY);
+            else System.setProperty(ExecutionMode.PROPERTY, previous);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package Logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AsyncLogAppenderTest {
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void testEntriesFlushedOnClose() throws Exception {
+        AsyncLogAppender appender = AsyncLogAppender.open(logDir, 64, AsyncLogAppender.OverflowPolicy.BLOCK);
+        SystemLogger logger = new SystemLogger(appender);
+        for (int i = 0; i < 500; i++) {
+            logger.logInfo("Test", "message " + i);
+        }
+        appender.close();
+
+        List<String> lines = Files.readAllLines(logDir.resolve(LocalDate.now() + ".txt"));
+        assertEquals(500, lines.size());
+        assertTrue(lines.get(0).endsWith("[INFO] [Test] message 0"));
+        assertTrue(lines.get(499).endsWith("[INFO] [Test] message 499"));
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    void testConcurrentProducers() throws Exception {
+        AsyncLogAppender appender = AsyncLogAppender.open(logDir, 128, AsyncLogAppender.OverflowPolicy.BLOCK);
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            int id = t;
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    appender.append(new LogEntry("WARN", "P" + id, "event " + i));
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread p : producers) p.join();
+        appender.close();
+
+        assertEquals(4000, Files.readAllLines(logDir.resolve(LocalDate.now() + ".txt")).size());
+        assertEquals(4000, appender.getWrittenCount());
+    }
+
+    @Test
+    void testAppendAfterCloseIsDropped() {
+        AsyncLogAppender appender = AsyncLogAppender.open(logDir, 8, AsyncLogAppender.OverflowPolicy.DROP_INFO_FIRST);
+        appender.close();
+        appender.append(new LogEntry("ERROR", "Test", "late"));
+        assertEquals(1, appender.getDroppedCount());
+    }
+
+    @Test
+    void testErrorEvictsQueuedInfoWhenFull() throws Exception {
+        AsyncLogAppender appender = AsyncLogAppender.open(logDir, 8, AsyncLogAppender.OverflowPolicy.DROP_INFO_FIRST);
+        CountDownLatch pulled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // holds the writer thread until released, so the buffer stays full
+        appender.append(new LogEntry("WARN", "Test", "gate") {
+            @Override
+            public long getTimestampMillis() {
+                pulled.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getTimestampMillis();
+            }
+        });
+        pulled.await();
+        for (int i = 0; i < 8; i++) appender.append(new LogEntry("INFO", "Test", "info " + i));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> appender.append(new LogEntry("ERROR", "Test", "disk full")));
+        release.countDown();
+        appender.close();
+
+        List<String> lines = Files.readAllLines(logDir.resolve(LocalDate.now() + ".txt"));
+        assertEquals(9, lines.size());
+        assertTrue(lines.get(1).endsWith("info 1"), "oldest INFO should be evicted first");
+        assertTrue(lines.get(8).endsWith("[ERROR] [Test] disk full"));
+        assertEquals(1, appender.getDroppedCount());
+    }
+
+    @Test
+    void testUnopenableLogFileDropsEntriesWithoutRetryingEach() throws Exception {
+        Path notADirectory = Files.createFile(logDir.resolve("not-a-dir"));
+        PrintStream err = System.err;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(captured, true));
+        AsyncLogAppender appender;
+        try {
+            appender = AsyncLogAppender.open(notADirectory, 64, AsyncLogAppender.OverflowPolicy.BLOCK);
+            for (int i = 0; i < 50; i++) appender.append(new LogEntry("WARN", "Test", "event " + i));
+            appender.close();
+        } finally {
+            System.setErr(err);
+        }
+
+        assertEquals(0, appender.getWrittenCount());
+        assertEquals(50, appender.getDroppedCount());
+        long attempts = captured.toString().lines().filter(l -> l.startsWith("Failed to open log file")).count();
+        assertTrue(attempts >= 1 && attempts <= 3, attempts + " open attempts for 50 entries");
+    }
+}
@@ -0,0 +1,111 @@
+package Logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogArchiverTest {
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void testArchiveRangeCompressesInParallel() throws Exception {
+        LocalDate start = LocalDate.now().minusDays(5);
+        for (int d = 0; d < 4; d++) writeDay(start.plusDays(d), 500);
+        writeDay(LocalDate.now(), 10);
+
+        LogArchiver archiver = new LogArchiver(logDir);
+        List<LogArchiver.ArchiveEntry> archived =
+                archiver.archiveRange(start, LocalDate.now()).get(10, TimeUnit.SECONDS);
+
+        assertEquals(4, archived.size());
+        assertTrue(Files.exists(logDir.resolve(LocalDate.now() + ".txt")), "live file must stay");
+        for (int d = 0; d < 4; d++) {
+            LocalDate date = start.plusDays(d);
+            assertFalse(Files.exists(logDir.resolve(date + ".txt")));
+            assertTrue(Files.exists(logDir.resolve("archive").resolve(date + ".txt.gz")));
+            assertTrue(archiver.verify(date));
+        }
+        LogArchiver.ArchiveEntry entry = archiver.getManifest().get(start);
+        assertTrue(entry.getCompressedBytes() < entry.getOriginalBytes());
+    }
+
+    @Test
+    void testArchiveIsQueryable() throws Exception {
+        LocalDate day = LocalDate.now().minusDays(1);
+        writeDay(day, 100);
+        LogArchiver archiver = new LogArchiver(logDir);
+        archiver.archive(day);
+
+        List<LogEntry> errors = archiver.query(day, null, null, LogLevel.ERROR, "ChargingManager");
+        assertEquals(10, errors.size());
+        assertEquals("line 0", errors.get(0).getMessage());
+    }
+
+    @Test
+    void testArchiveDeletesTheQueryIndexOfTheDay() throws Exception {
+        LocalDate day = LocalDate.now().minusDays(1);
+        writeDay(day, 300);
+        new LogQuery(logDir).refresh(day);
+        Path index = logDir.resolve("index").resolve(day + ".idx");
+        assertTrue(Files.exists(index));
+
+        new LogArchiver(logDir).archive(day);
+
+        assertFalse(Files.exists(index));
+    }
+
+    @Test
+    void testRetentionBySizeRemovesOldestFirst() throws Exception {
+        LocalDate start = LocalDate.now().minusDays(3);
+        LogArchiver archiver = new LogArchiver(logDir);
+        for (int d = 0; d < 3; d++) {
+            writeDay(start.plusDays(d), 200);
+            archiver.archive(start.plusDays(d));
+        }
+        long oneArchive = archiver.getManifest().get(start).getCompressedBytes();
+
+        List<LocalDate> removed = archiver.enforceRetention(30, oneArchive * 2 + oneArchive / 2);
+        assertEquals(List.of(start), removed);
+        assertEquals(2, archiver.getManifest().size());
+
+        removed = archiver.enforceRetention(1, Long.MAX_VALUE);
+        assertEquals(List.of(start.plusDays(1)), removed);
+    }
+
+    private void writeDay(LocalDate day, int lines) throws Exception {
+        List<String> content = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            boolean error = i % 10 == 0;
+            content.add("[" + day + "T10:00:00.000] [" + (error ? "ERROR" : "INFO") + "] ["
+                    + (error ? "ChargingManager" : "HMI") + "] line " + i);
+        }
+        Files.write(logDir.resolve(day + ".txt"), content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testArchivingTodayKeepsTheLiveFile() throws Exception {
+        AsyncLogAppender appender = AsyncLogAppender.open(logDir, 64, AsyncLogAppender.OverflowPolicy.BLOCK);
+        appender.append(new LogEntry("INFO", "Test", "before"));
+        while (appender.getWrittenCount() < 1) Thread.sleep(5);
+
+        LogArchiver archiver = new LogArchiver(logDir);
+        assertThrows(IOException.class, () -> archiver.archive(LocalDate.now()));
+
+        appender.append(new LogEntry("INFO", "Test", "after"));
+        appender.close();
+        List<String> lines = Files.readAllLines(logDir.resolve(LocalDate.now() + ".txt"));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).endsWith("after"));
+    }
+}
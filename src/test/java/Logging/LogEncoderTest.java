@@ -0,0 +1,50 @@
+package Logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import org.junit.jupiter.api.Test;
+
+class LogEncoderTest {
+
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+    @Test
+    void testFormatMatchesLegacyLayout() {
+        LocalDateTime time = LocalDateTime.of(2025, 11, 12, 22, 34, 36, 58_000_000);
+        long millis = time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        LogEntry entry = new LogEntry(millis, "INFO", "HMI", "Loading database...");
+
+        assertEquals("[" + time.format(TS) + "] [INFO] [HMI] Loading database...", entry.toString());
+    }
+
+    @Test
+    void testTimestampChangesWithinCachedSecond() {
+        long base = System.currentTimeMillis() / 1000 * 1000;
+        String first = new LogEntry(base + 1, "WARN", "A", "x").toString();
+        String second = new LogEntry(base + 999, "WARN", "A", "x").toString();
+        assertTrue(first.contains(".001]"));
+        assertTrue(second.contains(".999]"));
+        assertEquals(first.substring(0, 20), second.substring(0, 20));
+    }
+
+    @Test
+    void testEncodeWritesUtf8Line() {
+        LogEntry entry = new LogEntry("ERROR", "Storage", "A\u011fr\u0131 kesici \u2013 stok yok \ud83d\udc8a");
+        ByteBuffer line = LogEncoder.get().encode(entry);
+        String decoded = new String(line.array(), 0, line.limit(), StandardCharsets.UTF_8);
+
+        assertEquals(entry.toString() + System.lineSeparator(), decoded);
+        assertTrue(line.limit() <= LogEncoder.maxEncodedLength(entry));
+    }
+
+    @Test
+    void testDateOfUsesLocalZone() {
+        LogEntry entry = new LogEntry("INFO", "A", "b");
+        assertEquals(entry.getTimestamp().toLocalDate(), LogEncoder.get().dateOf(entry.getTimestampMillis()));
+    }
+}
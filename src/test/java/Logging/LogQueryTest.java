@@ -0,0 +1,133 @@
+package Logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogQueryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 12);
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void testRangeQueryByLevelAndComponent() throws Exception {
+        writeLines(0, 1000);
+        LogQuery query = new LogQuery(logDir);
+
+        List<LogEntry> errors = query.query(DAY, LocalTime.of(10, 0), LocalTime.of(10, 5),
+                LogLevel.ERROR, "ChargingManager");
+
+        assertFalse(errors.isEmpty());
+        for (LogEntry e : errors) {
+            assertEquals("ERROR", e.getLevel());
+            assertEquals("ChargingManager", e.getComponent());
+            LocalTime t = e.getTimestamp().toLocalTime().withNano(0);
+            assertFalse(t.isBefore(LocalTime.of(10, 0)) || t.isAfter(LocalTime.of(10, 5)));
+        }
+        // one line per second; every 10th line is an ERROR from ChargingManager
+        assertEquals(31, errors.size());
+    }
+
+    @Test
+    void testIndexExtendedIncrementally() throws Exception {
+        writeLines(0, 200);
+        LogQuery query = new LogQuery(logDir);
+        LogQuery.FileIndex first = query.refresh(DAY);
+        long indexedBefore = first.getIndexedUpTo();
+
+        writeLines(200, 300);
+        LogQuery.FileIndex second = query.refresh(DAY);
+        assertTrue(second.getIndexedUpTo() > indexedBefore);
+        assertEquals(Files.size(logDir.resolve(DAY + ".txt")), second.getIndexedUpTo());
+        assertEquals(3, second.getBlockCount());
+
+        // a fresh instance reuses the persisted index
+        assertTrue(Files.exists(logDir.resolve("index").resolve(DAY + ".idx")));
+        LogQuery reopened = new LogQuery(logDir);
+        assertEquals(300, reopened.query(DAY, null, null, null, null).size());
+    }
+
+    @Test
+    void testMissingDayReturnsEmpty() throws Exception {
+        assertTrue(new LogQuery(logDir).query(DAY, null, null, LogLevel.INFO, null).isEmpty());
+    }
+
+    @Test
+    void testQueriesRaceWithIndexGrowth() throws Exception {
+        writeLines(0, 100);
+        LogQuery query = new LogQuery(logDir);
+        List<Throwable> errors = java.util.Collections.synchronizedList(new ArrayList<>());
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 200; i++) query.query(DAY, null, null, null, null);
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            readers[t].start();
+        }
+        for (int i = 100; i < 2_000; i += 50) writeLines(i, i + 50);
+        for (Thread r : readers) r.join();
+
+        assertTrue(errors.isEmpty(), () -> "query failed: " + errors.get(0));
+        assertEquals(2_000, query.query(DAY, null, null, null, null).size());
+    }
+
+    @Test
+    void testFollowIndexesAsTheAppenderFlushes() throws Exception {
+        LocalDate today = LocalDate.now();
+        AsyncLogAppender appender = AsyncLogAppender.open(logDir, 64, AsyncLogAppender.OverflowPolicy.BLOCK);
+        try (LogQuery query = new LogQuery(logDir)) {
+            query.follow(appender);
+            for (int i = 0; i < 300; i++) appender.append(new LogEntry("INFO", "HMI", "event " + i));
+            appender.close();
+
+            // no query runs: the index has to catch up from the flushes alone
+            long fileSize = Files.size(logDir.resolve(today + ".txt"));
+            Path indexFile = logDir.resolve("index").resolve(today + ".idx");
+            long deadline = System.currentTimeMillis() + 5_000;
+            long indexed = -1;
+            while (indexed != fileSize && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                indexed = indexedUpTo(indexFile);
+            }
+            assertEquals(fileSize, indexed);
+        }
+    }
+
+    // indexedUpTo from the persisted header, -1 while no complete index is on disk
+    private static long indexedUpTo(Path indexFile) {
+        try (java.io.DataInputStream in = new java.io.DataInputStream(Files.newInputStream(indexFile))) {
+            in.readInt(); // magic
+            return in.readLong();
+        } catch (java.io.IOException e) {
+            return -1;
+        }
+    }
+
+    private void writeLines(int from, int to) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            LocalTime t = LocalTime.of(9, 55).plusSeconds(i);
+            boolean error = i % 10 == 0;
+            lines.add("[" + DAY + "T" + t.format(DateTimeFormatter.ISO_LOCAL_TIME) + ".123] [" + (error ? "ERROR" : "INFO") + "] ["
+                    + (error ? "ChargingManager" : "HMI") + "] line " + i);
+        }
+        Files.write(logDir.resolve(DAY + ".txt"), lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,46 @@
+package Logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LoggerFactoryTest {
+
+    @Test
+    void testSameInstancePerComponent() {
+        Logger a = LoggerFactory.getLogger("FactoryTest-A");
+        assertSame(a, LoggerFactory.getLogger("FactoryTest-A"));
+        assertNotSame(a, LoggerFactory.getLogger("FactoryTest-B"));
+    }
+
+    @Test
+    void testPerComponentThreshold() {
+        Logger logger = LoggerFactory.getLogger("FactoryTest-C");
+        assertTrue(logger.isEnabled(LogLevel.INFO));
+
+        LoggerFactory.setLevel("FactoryTest-C", LogLevel.ERROR);
+        assertFalse(logger.isEnabled(LogLevel.INFO));
+        assertFalse(logger.isEnabled(LogLevel.WARN));
+        assertTrue(logger.isEnabled(LogLevel.ERROR));
+        assertTrue(LoggerFactory.getLogger("FactoryTest-D").isEnabled(LogLevel.INFO));
+
+        LoggerFactory.setLevel("FactoryTest-C", LogLevel.OFF);
+        assertFalse(logger.isEnabled(LogLevel.ERROR));
+    }
+
+    @Test
+    void testLevelAppliedToLaterLogger() {
+        LoggerFactory.setLevel("FactoryTest-E", LogLevel.WARN);
+        Logger logger = LoggerFactory.getLogger("FactoryTest-E");
+        assertFalse(logger.isEnabled(LogLevel.INFO));
+        assertTrue(logger.isEnabled(LogLevel.WARN));
+    }
+
+    @Test
+    void testDisabledLevelNeverBuildsMessage() {
+        LoggerFactory.setLevel("FactoryTest-F", LogLevel.ERROR);
+        Logger logger = LoggerFactory.getLogger("FactoryTest-F");
+        logger.logInfo("FactoryTest-F", () -> fail("message built for a disabled level"));
+        logger.logWarning("FactoryTest-F", () -> fail("message built for a disabled level"));
+    }
+}
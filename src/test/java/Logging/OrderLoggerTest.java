@@ -0,0 +1,98 @@
+package Logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OrderLoggerTest {
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void testConcurrentWritersAreAllCommitted() throws Exception {
+        Path file = logDir.resolve("orders.log");
+        OrderLogger logger = new OrderLogger(file, GroupCommitChannel.DurabilityMode.FORCE_PER_BATCH);
+
+        Thread[] writers = new Thread[8];
+        for (int t = 0; t < writers.length; t++) {
+            int id = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    logger.logInfo("order " + id + "-" + i);
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread w : writers) w.join();
+
+        GroupCommitChannel.Metrics metrics = logger.getMetrics();
+        logger.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2000, lines.size());
+        assertTrue(lines.stream().allMatch(l -> l.contains(" [INFO] order ")));
+        assertEquals(2000, metrics.getRecords());
+        assertTrue(metrics.getBatches() <= metrics.getRecords());
+        assertEquals(metrics.getBatches(), metrics.getForces());
+    }
+
+    @Test
+    void testLoggersShareOneSink() throws Exception {
+        Path file = logDir.resolve("shared.log");
+        OrderLogger a = new OrderLogger(file, GroupCommitChannel.DurabilityMode.OS_BUFFERED);
+        OrderLogger b = new OrderLogger(file, GroupCommitChannel.DurabilityMode.OS_BUFFERED);
+        a.logWarning("first");
+        b.logError("second");
+
+        assertEquals(2, a.getMetrics().getRecords());
+        assertEquals(0, a.getMetrics().getForces());
+        a.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertTrue(lines.get(0).endsWith("[WARNING] first"));
+        assertTrue(lines.get(1).endsWith("[ERROR] second"));
+    }
+
+    @Test
+    void testMismatchedDurabilityModeIsRejected() {
+        Path file = logDir.resolve("modes.log");
+        OrderLogger buffered = new OrderLogger(file, GroupCommitChannel.DurabilityMode.OS_BUFFERED);
+        buffered.logInfo("opened");
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderLogger(file, GroupCommitChannel.DurabilityMode.FORCE_PER_BATCH));
+        buffered.close();
+    }
+
+    @Test
+    void testAppendAfterCloseFailsClearly() throws Exception {
+        GroupCommitChannel channel = new GroupCommitChannel(logDir.resolve("closed.log"),
+                GroupCommitChannel.DurabilityMode.OS_BUFFERED);
+        channel.append("a\n".getBytes());
+        channel.close();
+        IOException e = assertThrows(IOException.class, () -> channel.append("b\n".getBytes()));
+        assertEquals("Group commit channel is closed", e.getMessage());
+    }
+
+    @Test
+    void testLoggingContinuesAcrossClose() throws Exception {
+        Path file = logDir.resolve("reopen.log");
+        OrderLogger logger = new OrderLogger(file, GroupCommitChannel.DurabilityMode.OS_BUFFERED);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) logger.logInfo("entry " + i);
+        });
+        writer.start();
+        for (int i = 0; i < 20; i++) {
+            logger.close();
+            Thread.sleep(1);
+        }
+        writer.join();
+        logger.close();
+        assertEquals(2_000, Files.readAllLines(file).size());
+    }
+}
@@ -0,0 +1,68 @@
+package StorageManagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import Exceptions.StorageException;
+
+class CapacityIndexTest {
+
+    @Test
+    void testConcurrentUpdatesKeepOneEntryAndTheTotal() throws Exception {
+        CapacityIndex index = new CapacityIndex();
+        StorageLocation location = new StorageLocation("L1", 1_000);
+        index.update(location);
+
+        // unlocked updaters race with each other while the load keeps changing
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        if (location.tryAdd(1)) index.update(location);
+                        if (location.tryRemove(1)) index.update(location);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        index.update(location);
+
+        assertEquals(1, index.size());
+        assertEquals(location.getFreeCapacity(), index.getTotalFree());
+        assertEquals(List.of(location), index.emptiest(10));
+        index.remove(location);
+        assertEquals(0, index.getTotalFree());
+        assertNull(index.mostFree());
+    }
+
+    @Test
+    void testBestFitPicksSmallestBinThatFits() throws StorageException {
+        CapacityIndex index = new CapacityIndex();
+        StorageLocation small = new StorageLocation("S", 10);
+        StorageLocation large = new StorageLocation("L", 50);
+        index.update(small);
+        index.update(large);
+        assertSame(small, index.bestFit(8));
+        assertSame(large, index.bestFit(11));
+        assertNull(index.bestFit(51));
+    }
+
+    @Test
+    void testNonPositiveCountReturnsNothing() throws StorageException {
+        CapacityIndex index = new CapacityIndex();
+        index.update(new StorageLocation("S", 10));
+        assertTrue(index.emptiest(0).isEmpty());
+        assertTrue(index.fullest(-1).isEmpty());
+    }
+}
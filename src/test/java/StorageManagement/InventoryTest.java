@@ -58,4 +58,99 @@ class InventoryTest {
         inventory.updateStock(loc2, 5);
         assertDoesNotThrow(() -> inventory.printInventory());
     }
+
+    @Test
+    void testConcurrentDeltasAreNotLost() throws Exception {
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    try {
+                        inventory.updateStock(loc1, 1);
+                    } catch (StorageException e) {
+                        fail(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(80_000, inventory.getStock(loc1));
+    }
+
+    @Test
+    void testFailedDeltaLeavesStockUnchanged() throws StorageException {
+        inventory.updateStock(loc1, 4);
+        assertThrows(StorageException.class, () -> inventory.updateStock(loc1, -5));
+        assertThrows(StorageException.class, () -> inventory.transfer(loc1, loc2, 5));
+        assertEquals(4, inventory.getStock(loc1));
+        assertEquals(0, inventory.getStock(loc2));
+    }
+
+    @Test
+    void testSnapshotSeesTransfersAtomically() throws Exception {
+        inventory.updateStock(loc1, 500);
+        inventory.updateStock(loc2, 500);
+        Thread mover = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                try {
+                    if (i % 2 == 0) inventory.transfer(loc1, loc2, 1);
+                    else inventory.transfer(loc2, loc1, 1);
+                } catch (StorageException e) {
+                    fail(e);
+                }
+            }
+        });
+        mover.start();
+        while (mover.isAlive()) {
+            assertEquals(1_000, inventory.snapshot().total());
+        }
+        mover.join();
+    }
+
+    @Test
+    void testSnapshotIteratesAllLocations() throws StorageException {
+        for (int i = 0; i < 3_000; i++) {
+            inventory.updateStock(new StorageLocation("L" + i, 10), i % 10);
+        }
+        Inventory.Snapshot snapshot = inventory.snapshot();
+        assertEquals(3_000, snapshot.size());
+        int seen = 0;
+        for (java.util.Map.Entry<String, Integer> e : snapshot) {
+            assertEquals("L" + seen, e.getKey());
+            assertEquals(seen % 10, e.getValue());
+            seen++;
+        }
+        assertEquals(3_000, seen);
+    }
+
+    @Test
+    void testDrainChangesReportsOnlyDeltasSinceLastReport() throws StorageException {
+        inventory.updateStock(loc1, 5);
+        inventory.updateStock(loc1, 2);
+        inventory.updateStock(loc2, 3);
+        Inventory.ChangeReport first = inventory.drainChanges();
+        assertEquals(2, first.getChanges().size());
+        assertEquals(7, first.getChanges().get(0).getCurrent());
+
+        inventory.updateStock(loc2, -1);
+        Inventory.ChangeReport second = inventory.drainChanges();
+        assertEquals(1, second.getChanges().size());
+        Inventory.Change change = second.getChanges().get(0);
+        assertEquals("B1", change.getLocationId());
+        assertEquals(3, change.getPrevious());
+        assertEquals(-1, change.getDelta());
+        assertTrue(second.getVersion() > first.getVersion());
+
+        assertTrue(inventory.drainChanges().isEmpty());
+    }
+
+    @Test
+    void testChangeThatCancelsOutIsNotReported() throws StorageException {
+        inventory.updateStock(loc1, 4);
+        inventory.drainChanges();
+        inventory.updateStock(loc1, 1);
+        inventory.updateStock(loc1, -1);
+        assertTrue(inventory.drainChanges().isEmpty());
+    }
 }
@@ -0,0 +1,104 @@
+package StorageManagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import Exceptions.StorageException;
+
+class RoboticArmPoolTest {
+
+    private RoboticArmPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    @Test
+    void testEveryPickCompletes() throws Exception {
+        pool = new RoboticArmPool(List.of("RA-01", "RA-02", "RA-03"));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            futures.add(pool.submit(new StorageLocation("S" + (i % 8 + 1), 10)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(300, pool.getPicks());
+    }
+
+    @Test
+    void testNearbyPicksShareActivations() throws Exception {
+        pool = new RoboticArmPool(List.of("RA-01"));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(pool.submit(new StorageLocation("A" + (i % 4), 10)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertTrue(pool.getPicksPerActivation() > 1.0,
+                "expected coalesced cycles, got " + pool.getPicksPerActivation());
+        assertTrue(pool.getActivations() < 200);
+    }
+
+    @Test
+    void testIdleArmsStealWork() throws Exception {
+        pool = new RoboticArmPool(List.of("RA-01", "RA-02", "RA-03", "RA-04"));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        // one zone and slot band, so every pick lands in the same arm's queue
+        for (int i = 0; i < 400; i++) {
+            futures.add(pool.submit(new StorageLocation("Z" + (i % 4), 10)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertTrue(pool.getSteals() > 0);
+    }
+
+    @Test
+    void testOneZoneSpreadsAcrossQueuesBySlotBand() {
+        int[] perQueue = new int[4];
+        for (int i = 0; i < 100; i++) perQueue[RoboticArmPool.queueFor("LOC-" + i, 4)]++;
+        for (int q = 0; q < perQueue.length; q++) {
+            assertTrue(perQueue[q] >= 20, "queue " + q + " got " + perQueue[q] + " of 100 picks");
+        }
+        // nearby slots still share a queue so they can be coalesced
+        assertEquals(RoboticArmPool.queueFor("LOC-8", 4), RoboticArmPool.queueFor("LOC-11", 4));
+    }
+
+    @Test
+    void testSubmitRacingShutdownFailsThePick() throws Exception {
+        pool = new RoboticArmPool(List.of("RA-01"));
+        CountDownLatch inSubmit = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        // stalls submit() after its running check, while shutdown() drains the queues
+        StorageLocation stalling = new StorageLocation("S1", 10) {
+            @Override
+            public String getId() {
+                inSubmit.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getId();
+            }
+        };
+        CompletableFuture<CompletableFuture<Void>> submitted = CompletableFuture.supplyAsync(() -> pool.submit(stalling));
+        inSubmit.await();
+        pool.shutdown();
+        resume.countDown();
+
+        CompletableFuture<Void> future = submitted.get(5, TimeUnit.SECONDS);
+        assertTrue(future.isCompletedExceptionally(), "pick left pending after shutdown");
+    }
+
+    @Test
+    void testSubmitAfterShutdownFails() throws StorageException {
+        pool = new RoboticArmPool(List.of("RA-01"));
+        pool.shutdown();
+        CompletableFuture<Void> future = pool.submit(new StorageLocation("S1", 10));
+        assertTrue(future.isCompletedExceptionally());
+    }
+}
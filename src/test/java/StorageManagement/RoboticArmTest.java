@@ -61,4 +61,17 @@ class RoboticArmTest {
         arm.deactivate();
         assertThrows(StorageException.class, () -> arm.moveToStorage());
     }
+
+    @Test
+    void testPickCycleLeavesArmInactive() throws StorageException {
+        arm.setActive(false);
+        arm.pickCycle(java.util.List.of("S1", "S2", "S3"));
+        assertFalse(arm.isActive());
+    }
+
+    @Test
+    void testPickCycleRejectsActiveArm() {
+        arm.setActive(true);
+        assertThrows(StorageException.class, () -> arm.pickCycle(java.util.List.of("S1")));
+    }
 }
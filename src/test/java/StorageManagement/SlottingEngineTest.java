@@ -0,0 +1,131 @@
+package StorageManagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import Exceptions.StorageException;
+
+class SlottingEngineTest {
+
+    private StorageManager manager;
+    private SlottingEngine engine;
+    private StorageLocation fast;
+    private StorageLocation medium;
+    private StorageLocation slow;
+
+    @BeforeEach
+    void setUp() throws StorageException {
+        manager = new StorageManager("RA-01");
+        engine = new SlottingEngine(manager);
+        fast = add("F1", 20, SlottingEngine.SpeedClass.FAST);
+        medium = add("M1", 20, SlottingEngine.SpeedClass.MEDIUM);
+        slow = add("S1", 20, SlottingEngine.SpeedClass.SLOW);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    void testHotMedicineGoesToFastBins() throws StorageException {
+        engine.recordPick("Aspirin", 100);
+        engine.recordPick("Iodine", 1);
+        engine.recordPick("Insulin", 30);
+        assertEquals(SlottingEngine.SpeedClass.FAST, engine.classify("Aspirin"));
+        assertEquals(SlottingEngine.SpeedClass.SLOW, engine.classify("Iodine"));
+
+        List<SlottingEngine.Placement> placements = engine.putaway("Aspirin", "B1", 10);
+        assertEquals(1, placements.size());
+        assertSame(fast, placements.get(0).getLocation());
+        assertEquals(10, fast.getCurrentLoad());
+    }
+
+    @Test
+    void testQuantitySplitsAcrossClassesWhenPreferredIsFull() throws StorageException {
+        List<SlottingEngine.Placement> placements = engine.putaway("Iodine", "B1", 35);
+        assertEquals(2, placements.size());
+        assertSame(slow, placements.get(0).getLocation());
+        assertEquals(20, placements.get(0).getQuantity());
+        assertSame(medium, placements.get(1).getLocation());
+        assertEquals(15, placements.get(1).getQuantity());
+        assertEquals(35, manager.getInventory().getStock(slow) + manager.getInventory().getStock(medium));
+    }
+
+    @Test
+    void testSameBatchIsCoLocated() throws StorageException {
+        engine.putaway("Iodine", "B7", 5);
+        engine.recordPick("Iodine", 500); // now hot, but the batch stays together
+        List<SlottingEngine.Placement> placements = engine.putaway("Iodine", "B7", 5);
+        assertSame(slow, placements.get(0).getLocation());
+        assertEquals(10, slow.getCurrentLoad());
+    }
+
+    @Test
+    void testPrefersSmallestBinThatFitsWholeQuantity() throws StorageException {
+        StorageLocation small = add("S2", 6, SlottingEngine.SpeedClass.SLOW);
+        List<SlottingEngine.Placement> placements = engine.putaway("Iodine", "B1", 5);
+        assertSame(small, placements.get(0).getLocation());
+    }
+
+    @Test
+    void testInsufficientCapacityMovesNothing() {
+        assertThrows(StorageException.class, () -> engine.putaway("Iodine", "B1", 61));
+        assertEquals(0, fast.getCurrentLoad() + medium.getCurrentLoad() + slow.getCurrentLoad());
+    }
+
+    @Test
+    void testIndexFollowsRemovalsOutsideTheEngine() throws StorageException {
+        engine.putaway("Iodine", "B1", 20);
+        manager.removeStockSync(slow, 20);
+        List<SlottingEngine.Placement> placements = engine.putaway("Iodine", "B2", 20);
+        assertSame(slow, placements.get(0).getLocation());
+    }
+
+    @Test
+    void testStaleIndexRollsBackInsteadOfSpinning() {
+        // bins filled behind the engine's back still look empty in its index
+        assertTrue(medium.tryAdd(20));
+        assertTrue(slow.tryAdd(20));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(StorageException.class, () -> engine.putaway("Iodine", "B1", 30));
+        });
+        assertEquals(0, fast.getCurrentLoad());
+        assertEquals(0, manager.getInventory().getStock(fast));
+    }
+
+    @Test
+    void testRollbackNeedsNoArmPick() {
+        manager.getArmPool().shutdown(); // every pick would now fail
+        assertTrue(medium.tryAdd(20));
+        assertTrue(slow.tryAdd(20));
+        assertThrows(StorageException.class, () -> engine.putaway("Iodine", "B1", 30));
+        assertEquals(0, fast.getCurrentLoad());
+        assertEquals(0, manager.getInventory().getStock(fast));
+    }
+
+    @Test
+    void testPlacementAtScale() throws StorageException {
+        for (int i = 0; i < 100_000; i++) {
+            StorageLocation location = new StorageLocation("X" + i, 10 + i % 90);
+            engine.addLocation(location, SlottingEngine.SpeedClass.values()[i % 3]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            engine.putaway("Med" + (i % 50), "B" + i, 25);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(millis < 10_000, "1000 putaways over 100k bins took " + millis + " ms");
+    }
+
+    private StorageLocation add(String id, int capacity, SlottingEngine.SpeedClass speedClass) throws StorageException {
+        StorageLocation location = new StorageLocation(id, capacity);
+        manager.addStorageLocation(location);
+        engine.addLocation(location, speedClass);
+        return location;
+    }
+}
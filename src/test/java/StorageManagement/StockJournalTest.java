@@ -0,0 +1,138 @@
+package StorageManagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import Logging.GroupCommitChannel.DurabilityMode;
+
+class StockJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecoverReplaysLoadsAndDeltas() throws Exception {
+        try (StockJournal journal = new StockJournal(dir, DurabilityMode.FORCE_PER_BATCH, 0)) {
+            journal.recordLoad("S1", 60);
+            journal.recordDelta("S1", -10);
+            journal.recordDeltas(Map.of("S1", 5, "S2", 7));
+        }
+        try (StockJournal journal = new StockJournal(dir)) {
+            Map<String, Integer> state = journal.recover();
+            assertEquals(55, state.get("S1"));
+            assertEquals(7, state.get("S2"));
+        }
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws Exception {
+        try (StockJournal journal = new StockJournal(dir, DurabilityMode.FORCE_PER_BATCH, 0)) {
+            journal.recordDelta("S1", 3);
+        }
+        Path file = dir.resolve("journal-00000000.log");
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (StockJournal journal = new StockJournal(dir, DurabilityMode.FORCE_PER_BATCH, 0)) {
+            journal.recordDelta("S1", 4); // must stay readable after the torn bytes
+            assertEquals(7, journal.recover().get("S1"));
+        }
+    }
+
+    @Test
+    void testCheckpointCompactsAndKeepsState() throws Exception {
+        try (StockJournal journal = new StockJournal(dir, DurabilityMode.OS_BUFFERED, 0)) {
+            for (int i = 0; i < 1_000; i++) journal.recordDelta("S" + (i % 10), 1);
+            journal.checkpoint();
+            journal.recordDelta("S0", 5);
+            assertEquals(1, journal.getGeneration());
+        }
+        assertFalse(Files.exists(dir.resolve("journal-00000000.log")));
+        assertTrue(Files.exists(dir.resolve("snapshot-00000001.snap")));
+        try (StockJournal journal = new StockJournal(dir)) {
+            Map<String, Integer> state = journal.recover();
+            assertEquals(105, state.get("S0"));
+            assertEquals(100, state.get("S9"));
+        }
+    }
+
+    @Test
+    void testSnapshotWithBadBodyLengthIsTreatedAsCorrupt() throws Exception {
+        try (StockJournal journal = new StockJournal(dir, DurabilityMode.OS_BUFFERED, 0)) {
+            journal.recordDelta("S0", 100);
+            journal.checkpoint();
+            journal.recordDelta("S0", 5);
+        }
+        Path snapshot = dir.resolve("snapshot-00000001.snap");
+        for (int badLength : new int[]{-1, Integer.MAX_VALUE}) {
+            try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+                ch.write(java.nio.ByteBuffer.allocate(4).putInt(0, badLength), 12); // after magic and generation
+            }
+            try (StockJournal journal = new StockJournal(dir)) {
+                // the snapshot is skipped, only the journal after it remains
+                assertEquals(5, journal.recover().get("S0"));
+            }
+        }
+    }
+
+    @Test
+    void testRecoveryOfManyDeltasIsFast() throws Exception {
+        int threads = 4;
+        int perThread = 250_000;
+        try (StockJournal journal = new StockJournal(dir, DurabilityMode.OS_BUFFERED, 400_000)) {
+            Thread[] writers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                writers[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) journal.recordDelta("L" + (i % 1_000), 1);
+                    } catch (Exception e) {
+                        fail(e);
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread w : writers) w.join();
+        }
+
+        long start = System.nanoTime();
+        Map<String, Integer> state;
+        try (StockJournal journal = new StockJournal(dir)) {
+            state = journal.recover();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(1_000, state.size());
+        assertEquals(threads * perThread / 1_000, state.get("L0"));
+        assertTrue(millis < 10_000, "recovery took " + millis + " ms");
+    }
+
+    @Test
+    void testStorageManagerRestoresJournaledLoads() throws Exception {
+        StorageManager first = new StorageManager("RA-01");
+        StorageLocation a = new StorageLocation("A1", 100);
+        a.tryAdd(10); // seeded load, journaled as the baseline
+        first.addStorageLocation(a);
+        StockJournal journal = new StockJournal(dir);
+        first.attachJournal(journal);
+        first.addStock(a, 5).get(2, TimeUnit.SECONDS);
+        first.removeStock(a, 3).get(2, TimeUnit.SECONDS);
+        first.shutdown();
+        journal.close();
+
+        StorageManager second = new StorageManager("RA-01");
+        StorageLocation restored = new StorageLocation("A1", 100);
+        restored.tryAdd(10); // the csv value would be stale after a restart
+        second.addStorageLocation(restored);
+        try (StockJournal reopened = new StockJournal(dir)) {
+            second.attachJournal(reopened);
+            assertEquals(12, restored.getCurrentLoad());
+            assertEquals(12, second.getInventory().getStock(restored));
+        } finally {
+            second.shutdown();
+        }
+    }
+}
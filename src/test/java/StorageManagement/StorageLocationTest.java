@@ -71,4 +71,42 @@ class StorageLocationTest {
         location.addItem();
         assertTrue(location.isFull());
     }
+
+    @Test
+    void testTryAddBulk() {
+        assertTrue(location.tryAdd(3));
+        assertEquals(3, location.getCurrentLoad());
+        assertTrue(location.isFull());
+    }
+
+    @Test
+    void testTryAddRejectsOverCapacity() throws StorageException {
+        location.addItem();
+        assertFalse(location.tryAdd(3));
+        assertEquals(1, location.getCurrentLoad());
+    }
+
+    @Test
+    void testTryRemoveRejectsMoreThanStored() {
+        assertTrue(location.tryAdd(2));
+        assertFalse(location.tryRemove(3));
+        assertTrue(location.tryRemove(2));
+        assertEquals(0, location.getCurrentLoad());
+    }
+
+    @Test
+    void testConcurrentBulkAddsNeverExceedCapacity() throws Exception {
+        StorageLocation shared = new StorageLocation("C1", 10_000);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    shared.tryAdd(3);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(9_999, shared.getCurrentLoad());
+    }
 }
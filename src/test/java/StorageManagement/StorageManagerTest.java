@@ -1,7 +1,14 @@
 package StorageManagement;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import Exceptions.StorageException;
@@ -85,11 +92,168 @@ class StorageManagerTest {
         assertDoesNotThrow(() -> manager.manageInventory());
     }
 
+    @Test
+    void testFullInventoryReportListsEveryLocation() throws Exception {
+        manager.addStock(loc1, 2).get(2, TimeUnit.SECONDS);
+        manager.manageInventory(); // drains the delta, so only the full report can list loc1 again
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(out, true));
+        try {
+            manager.manageInventory(true);
+            waitUntil(() -> out.toString().contains("Inventory at " + loc2.getId() + ": 0 items."));
+            assertTrue(out.toString().contains("Inventory at " + loc1.getId() + ": 2 items."), out.toString());
+            assertTrue(out.toString().contains("Inventory at " + loc2.getId() + ": 0 items."), out.toString());
+        } finally {
+            System.setOut(original);
+        }
+    }
+
     @Test
     void testGetInventory() {
         assertNotNull(manager.getInventory());
     }
 
+    @Test
+    void testParallelAddsOnManyLocations() throws Exception {
+        StorageLocation[] locations = new StorageLocation[16];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = new StorageLocation("P" + i, 1000);
+            manager.addStorageLocation(locations[i]);
+        }
+        for (int round = 0; round < 50; round++) {
+            for (StorageLocation location : locations) {
+                manager.addStock(location, 2);
+            }
+        }
+        waitUntil(() -> java.util.Arrays.stream(locations).allMatch(l -> l.getCurrentLoad() == 100));
+        for (StorageLocation location : locations) {
+            assertEquals(100, location.getCurrentLoad());
+            assertEquals(100, manager.getInventory().getStock(location));
+        }
+    }
+
+    @Test
+    void testOpposingTransfersDoNotDeadlock() throws Exception {
+        StorageLocation a = new StorageLocation("TA", 100);
+        StorageLocation b = new StorageLocation("TB", 100);
+        manager.addStorageLocation(a);
+        manager.addStorageLocation(b);
+        manager.addStock(a, 50);
+        manager.addStock(b, 50);
+        waitUntil(() -> a.getCurrentLoad() == 50 && b.getCurrentLoad() == 50);
+
+        Thread forward = new Thread(() -> transferMany(a, b));
+        Thread backward = new Thread(() -> transferMany(b, a));
+        forward.start();
+        backward.start();
+        forward.join(5000);
+        backward.join(5000);
+
+        assertFalse(forward.isAlive() || backward.isAlive(), "transfers deadlocked");
+        assertEquals(100, a.getCurrentLoad() + b.getCurrentLoad());
+        assertEquals(100, manager.getInventory().getStock(a) + manager.getInventory().getStock(b));
+    }
+
+    @Test
+    void testTransferMoreThanAvailableThrowsException() throws Exception {
+        manager.addStock(loc2, 1);
+        waitUntil(() -> loc2.getCurrentLoad() == 1);
+        assertThrows(StorageException.class, () -> manager.transferStock(loc2, loc1, 2));
+        assertEquals(1, loc2.getCurrentLoad());
+        assertEquals(0, loc1.getCurrentLoad());
+    }
+
+    @Test
+    void testFindLocationById() {
+        assertSame(loc1, manager.findLocation("A1"));
+        assertSame(loc2, manager.findLocation("B1"));
+        assertNull(manager.findLocation("missing"));
+    }
+
+    @Test
+    void testEmptiestAndFullestFollowStockMoves() throws Exception {
+        manager.addStock(loc1, 4);
+        waitUntil(() -> manager.getFullestLocations(1).contains(loc1));
+        assertEquals(List.of(loc1, loc2), manager.getFullestLocations(2));
+        assertEquals(List.of(loc2, loc1), manager.getEmptiestLocations(2));
+
+        manager.removeStockSync(loc1, 4);
+        assertEquals(loc1, manager.getEmptiestLocations(1).get(0));
+    }
+
+    @Test
+    void testStockFuturesReportResultingLoad() throws Exception {
+        assertEquals(3, manager.addStock(loc1, 3).get(2, TimeUnit.SECONDS));
+        assertEquals(1, manager.removeStock(loc1, 2).get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedRemoveCompletesExceptionally() throws Exception {
+        CompletableFuture<Integer> future = manager.removeStock(loc2, 1);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(StorageException.class, e.getCause());
+    }
+
+    @Test
+    void testFailedPickRestoresStock() throws Exception {
+        assertEquals(5, manager.addStock(loc1, 5).get(2, TimeUnit.SECONDS));
+        manager.getArmPool().shutdown();
+
+        CompletableFuture<Integer> future = manager.removeStock(loc1, 2);
+        assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertEquals(5, loc1.getCurrentLoad());
+        assertEquals(5, manager.getInventory().getStock(loc1));
+
+        assertThrows(StorageException.class, () -> manager.removeStockSync(loc1, 3));
+        assertEquals(5, loc1.getCurrentLoad());
+        assertEquals(5, manager.getInventory().getStock(loc1));
+    }
+
+    @Test
+    void testRemoveStockSyncRejectsInvalidArguments() throws Exception {
+        assertEquals(5, manager.addStock(loc1, 5).get(2, TimeUnit.SECONDS));
+
+        assertThrows(StorageException.class, () -> manager.removeStockSync(null, 1));
+        assertThrows(StorageException.class, () -> manager.removeStockSync(loc1, 0));
+        assertThrows(StorageException.class, () -> manager.removeStockSync(loc1, -3));
+        assertEquals(5, loc1.getCurrentLoad());
+        assertEquals(5, manager.getInventory().getStock(loc1));
+    }
+
+    @Test
+    void testApplyStockDeltasInOnePass() throws Exception {
+        manager.addStock(loc1, 4).get(2, TimeUnit.SECONDS);
+        Map<StorageLocation, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(loc1, -3);
+        deltas.put(loc2, 2);
+        Map<StorageLocation, Integer> loads = manager.applyStockDeltas(deltas).get(2, TimeUnit.SECONDS);
+        assertEquals(1, loads.get(loc1));
+        assertEquals(2, loads.get(loc2));
+        assertEquals(1, manager.getInventory().getStock(loc1));
+        assertEquals(2, manager.getInventory().getStock(loc2));
+    }
+
+    @Test
+    void testApplyStockDeltasIsAllOrNothing() throws Exception {
+        Map<StorageLocation, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(loc1, 2);
+        deltas.put(loc2, 4); // over capacity
+        assertThrows(ExecutionException.class, () -> manager.applyStockDeltas(deltas).get(2, TimeUnit.SECONDS));
+        assertEquals(0, loc1.getCurrentLoad());
+        assertEquals(0, manager.getInventory().getStock(loc1));
+    }
+
+    private void transferMany(StorageLocation from, StorageLocation to) {
+        for (int i = 0; i < 2000; i++) {
+            try {
+                manager.transferStock(from, to, 1);
+            } catch (StorageException e) {
+                // source empty or target full, try again
+            }
+        }
+    }
+
     private void waitUntil(CheckCondition condition) throws Exception {
         int retries = 40;
         while (!condition.isTrue() && retries-- > 0) {
@@ -0,0 +1,145 @@
+package TaskManagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TaskAssignerTest {
+
+    private WarehouseGrid grid;
+    private TaskAssigner assigner;
+
+    @BeforeEach
+    public void setup() {
+        grid = new WarehouseGrid();
+        assigner = new TaskAssigner(grid);
+    }
+
+    @Test
+    public void testNearestAgvWins() {
+        grid.place("DOCK", 0, 0);
+        grid.place("FAR", 90, 90);
+        grid.place("NEAR", 12, 0);
+        grid.place("S1", 10, 0);
+        assigner.updateAgv("AGV-FAR", "FAR", 100);
+        assigner.updateAgv("AGV-NEAR", "NEAR", 100);
+
+        List<TaskAssigner.Assignment> result = assigner.assign(List.of(new Task("T-1", "PICK", "S1", "DOCK", "PENDING")));
+
+        assertEquals(1, result.size());
+        assertEquals("AGV-NEAR", result.get(0).getAgvId());
+        assertEquals(2 + 10, result.get(0).getCost());
+    }
+
+    @Test
+    public void testLowBatterySkippedForLongTrip() {
+        grid.place("A", 0, 0);
+        grid.place("B", 200, 0);
+        assigner.updateAgv("AGV-LOW", "A", 25);
+        assigner.updateAgv("AGV-FULL", "B", 100);
+
+        // 200 cells at 0.1% per cell would leave AGV-LOW below the reserve
+        List<TaskAssigner.Assignment> result = assigner.assign(List.of(new Task("T-1", "MOVE", "A", "B", "PENDING")));
+
+        assertEquals("AGV-FULL", result.get(0).getAgvId());
+    }
+
+    @Test
+    public void testEachAgvTakesOneTaskPerTickAndFreesOnCompletion() {
+        assigner.updateAgv("AGV-1", "S1", 90);
+        List<Task> tasks = List.of(new Task("T-1", "PICK", "S1", "S5", "PENDING"),
+                new Task("T-2", "PICK", "S2", "S5", "PENDING"));
+
+        List<TaskAssigner.Assignment> result = assigner.assign(tasks);
+        assertEquals(1, result.size());
+        assertEquals(0, assigner.getIdleCount());
+
+        assigner.complete(result.get(0));
+        assertEquals(1, assigner.getIdleCount());
+        assertTrue(assigner.getBattery("AGV-1") < 90);
+    }
+
+    @Test
+    public void testTaskManagerRequeuesUnmatchedTasks() {
+        TaskManager manager = new TaskManager(1);
+        assigner.updateAgv("AGV-1", "S1", 100);
+        manager.queueTask(new Task("T-1", "PICK", "S1", "S2", "PENDING"));
+        manager.queueTask(new Task("T-2", "PICK", "S3", "S2", "PENDING"));
+
+        List<TaskAssigner.Assignment> result = manager.assignPendingTasks(assigner, 10);
+
+        assertEquals(1, result.size());
+        assertEquals("IN_PROGRESS", result.get(0).getTask().getStatus());
+        assertEquals(1, manager.getTaskQueue().size());
+        manager.shutdownNow();
+    }
+
+    @Test
+    public void testTaskThatCannotStartFreesItsAgv() {
+        TaskManager manager = new TaskManager(1);
+        assigner.updateAgv("AGV-1", "S1", 100);
+        Task cancelled = new Task("T-1", "PICK", "S1", "S2", "PENDING");
+        manager.queueTask(cancelled);
+        cancelled.fail(); // failed outside the manager while still queued
+
+        List<TaskAssigner.Assignment> result = manager.assignPendingTasks(assigner, 10);
+
+        assertTrue(result.isEmpty());
+        assertEquals(1, assigner.getIdleCount());
+        assertEquals(100, assigner.getBattery("AGV-1"));
+        assertEquals(0, manager.getInFlightCount());
+        manager.shutdownNow();
+    }
+
+    @Test
+    public void testThousandsPerTick() {
+        Random random = new Random(7);
+        int n = 5_000;
+        for (int i = 0; i < n; i++) {
+            grid.place("P" + i, random.nextInt(500), random.nextInt(500));
+            assigner.updateAgv("AGV-" + i, "P" + i, 50 + random.nextInt(51));
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String from = "P" + random.nextInt(n);
+            String to = "P" + random.nextInt(n);
+            tasks.add(new Task("T-" + i, "MOVE", from, to, "PENDING"));
+        }
+
+        long start = System.nanoTime();
+        List<TaskAssigner.Assignment> result = assigner.assign(tasks);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        Set<String> agvs = new HashSet<>();
+        for (TaskAssigner.Assignment a : result) assertTrue(agvs.add(a.getAgvId()));
+        assertTrue(result.size() > n / 2, "only " + result.size() + " tasks assigned");
+        assertTrue(millis < 5_000, "tick took " + millis + " ms");
+    }
+
+    @Test
+    public void testAislesResolvedConcurrentlyGetDistinctRows() throws InterruptedException {
+        int threads = 8;
+        int aislesPerThread = 50;
+        Set<Integer> rows = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < aislesPerThread; i++) {
+                    rows.add(grid.cellOf("AISLE" + (char) ('A' + id) + (char) ('A' + i % 26) + (char) ('A' + i / 26) + "1")[1]);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) w.join();
+
+        assertEquals(threads * aislesPerThread, rows.size());
+        assertEquals(grid.cellOf("AISLEAAA7")[1], grid.cellOf("AISLEAAA1")[1]);
+    }
+}
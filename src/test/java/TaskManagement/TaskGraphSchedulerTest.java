@@ -0,0 +1,122 @@
+package TaskManagement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TaskGraphSchedulerTest {
+
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    private TaskGraphScheduler scheduler;
+
+    @AfterEach
+    public void tearDown() {
+        if (scheduler != null) scheduler.shutdown();
+    }
+
+    @Test
+    public void testOrderStepsRunInDependencyOrder() throws Exception {
+        scheduler = new TaskGraphScheduler(4, task -> executed.add(task.getType()));
+        TaskGraph graph = TaskGraph.forOrder("O-1", "A1", "WARD 3");
+
+        TaskGraphScheduler.GraphReport report = scheduler.submit(graph).get(5, TimeUnit.SECONDS);
+
+        assertTrue(report.isSucceeded());
+        assertEquals(List.of("PICK", "MOVE", "LOAD", "DISPATCH"), executed);
+        assertEquals(4, report.getCriticalPath().size());
+        for (Task task : graph.getTasks()) assertEquals("COMPLETED", task.getStatus());
+    }
+
+    @Test
+    public void testIndependentOrdersRunInParallel() throws Exception {
+        scheduler = new TaskGraphScheduler(2, task -> Thread.sleep(50));
+        List<CompletableFuture<TaskGraphScheduler.GraphReport>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            results.add(scheduler.submit(TaskGraph.forOrder("O-" + i, "A" + i, "WARD")));
+        }
+        for (CompletableFuture<TaskGraphScheduler.GraphReport> r : results) {
+            assertTrue(r.get(10, TimeUnit.SECONDS).isSucceeded());
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 80 steps of 50 ms each would take 4 s one after another
+        assertTrue(millis < 2_000, "20 orders took " + millis + " ms");
+    }
+
+    @Test
+    public void testCriticalPathFollowsTheSlowBranch() throws Exception {
+        scheduler = new TaskGraphScheduler(4, task -> Thread.sleep(task.getType().equals("SLOW") ? 200 : 10));
+        TaskGraph graph = new TaskGraph("O-D");
+        Task pick = graph.add(new Task("D-PICK", "PICK", "A1", "ARM", "PENDING"));
+        Task fast = graph.add(new Task("D-FAST", "FAST", "A1", "B", "PENDING"), pick);
+        Task slow = graph.add(new Task("D-SLOW", "SLOW", "A1", "C", "PENDING"), pick);
+        Task dispatch = graph.add(new Task("D-DISPATCH", "DISPATCH", "AGV", "WARD", "PENDING"), fast, slow);
+
+        TaskGraphScheduler.GraphReport report = scheduler.submit(graph).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(pick, slow, dispatch), report.getCriticalPath());
+        assertTrue(report.getCriticalPathNanos() >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(report.getLatencyNanos() >= report.getCriticalPathNanos());
+    }
+
+    @Test
+    public void testFailureSkipsDownstreamTasks() throws Exception {
+        scheduler = new TaskGraphScheduler(2, task -> {
+            executed.add(task.getType());
+            if (task.getType().equals("MOVE")) throw new IllegalStateException("aisle blocked");
+        });
+        TaskGraph graph = TaskGraph.forOrder("O-F", "A1", "WARD");
+
+        TaskGraphScheduler.GraphReport report = scheduler.submit(graph).get(5, TimeUnit.SECONDS);
+
+        assertFalse(report.isSucceeded());
+        assertEquals(List.of("PICK", "MOVE"), executed);
+        for (Task task : graph.getTasks()) {
+            if (!task.getType().equals("PICK")) assertEquals("FAILED", task.getStatus());
+        }
+    }
+
+    @Test
+    public void testTaskStartedElsewhereIsNotRunAgain() throws Exception {
+        scheduler = new TaskGraphScheduler(2, task -> executed.add(task.getType()));
+        TaskGraph graph = TaskGraph.forOrder("O-S", "A1", "WARD");
+        Task pick = graph.getTasks().get(0);
+        assertTrue(pick.start());
+
+        TaskGraphScheduler.GraphReport report = scheduler.submit(graph).get(5, TimeUnit.SECONDS);
+
+        assertFalse(report.isSucceeded());
+        assertTrue(executed.isEmpty());
+        // the owner of the running task decides its fate, not the graph
+        assertEquals("IN_PROGRESS", pick.getStatus());
+    }
+
+    @Test
+    public void testErrorInStepStillCompletesTheGraph() throws Exception {
+        scheduler = new TaskGraphScheduler(2, task -> {
+            if (task.getType().equals("PICK")) throw new AssertionError("arm fault");
+            executed.add(task.getType());
+        });
+        TaskGraph graph = TaskGraph.forOrder("O-E", "A1", "WARD");
+
+        TaskGraphScheduler.GraphReport report = scheduler.submit(graph).get(5, TimeUnit.SECONDS);
+
+        assertFalse(report.isSucceeded());
+        assertTrue(executed.isEmpty());
+        for (Task task : graph.getTasks()) assertEquals("FAILED", task.getStatus());
+    }
+
+    @Test
+    public void testDependencyMustAlreadyBeInGraph() {
+        TaskGraph graph = new TaskGraph("O-X");
+        Task outside = new Task("X-1", "PICK", "A", "B", "PENDING");
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.add(new Task("X-2", "MOVE", "A", "B", "PENDING"), outside));
+    }
+}
@@ -1,5 +1,7 @@
 package TaskManagement;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,4 +56,84 @@ public class TaskManagerTest {
 
         assertFalse(manager.hasPendingTasks(), "All tasks should be moved from the queue");
     }
+
+    @Test
+    public void testProducersBackOffAtInFlightLimit() throws InterruptedException {
+        TaskManager bounded = new TaskManager(1, 2);
+        assertTrue(bounded.offerTask(new Task("B-1", "MOVE", "A", "B", "PENDING"), 10, TimeUnit.MILLISECONDS));
+        assertTrue(bounded.offerTask(new Task("B-2", "MOVE", "A", "B", "PENDING"), 10, TimeUnit.MILLISECONDS));
+        assertFalse(bounded.offerTask(new Task("B-3", "MOVE", "A", "B", "PENDING"), 50, TimeUnit.MILLISECONDS));
+
+        bounded.completeTask(bounded.assignNextTask());
+        assertTrue(bounded.offerTask(new Task("B-3", "MOVE", "A", "B", "PENDING"), 10, TimeUnit.MILLISECONDS));
+        assertEquals(2, bounded.getInFlightCount());
+        bounded.shutdownNow();
+    }
+
+    @Test
+    public void testDroppedTasksFreeTheirSlots() throws InterruptedException {
+        TaskManager bounded = new TaskManager(1, 2);
+        Task cancelled = new Task("C-1", "MOVE", "A", "B", "PENDING");
+        Task runnable = new Task("C-2", "MOVE", "A", "B", "PENDING");
+        assertTrue(bounded.offerTask(cancelled, 10, TimeUnit.MILLISECONDS));
+        assertTrue(bounded.offerTask(runnable, 10, TimeUnit.MILLISECONDS));
+        cancelled.fail(); // failed outside the manager while still queued
+
+        // the dead task is skipped and its slot comes back
+        assertSame(runnable, bounded.assignNextTask());
+        assertEquals(1, bounded.getInFlightCount());
+        assertTrue(bounded.offerTask(new Task("C-3", "MOVE", "A", "B", "PENDING"), 10, TimeUnit.MILLISECONDS));
+        bounded.shutdownNow();
+    }
+
+    @Test
+    public void testWorkersReleaseTasksTheyCannotStart() throws InterruptedException {
+        TaskManager bounded = new TaskManager(1, 1);
+        Task cancelled = new Task("W-1", "MOVE", "A", "B", "PENDING");
+        assertTrue(bounded.offerTask(cancelled, 10, TimeUnit.MILLISECONDS));
+        cancelled.fail();
+        bounded.processTasks();
+        assertTrue(bounded.offerTask(new Task("W-2", "MOVE", "A", "B", "PENDING"), 2, TimeUnit.SECONDS));
+        bounded.shutdownNow();
+    }
+
+    @Test
+    public void testQueueTaskWithoutWorkersFailsFastWhenFull() {
+        TaskManager bounded = new TaskManager(1, 1);
+        bounded.queueTask(new Task("Q-1", "MOVE", "A", "B", "PENDING"));
+
+        assertTimeoutPreemptively(java.time.Duration.ofSeconds(2), () -> assertThrows(
+                java.util.concurrent.RejectedExecutionException.class,
+                () -> bounded.queueTask(new Task("Q-2", "MOVE", "A", "B", "PENDING"))));
+        assertEquals(1, bounded.getInFlightCount());
+        bounded.shutdownNow();
+    }
+
+    @Test
+    public void testShutdownDrainsQueuedTasks() {
+        Task first = new Task("D-1", "MOVE", "A", "B", "PENDING");
+        Task second = new Task("D-2", "MOVE", "A", "B", "PENDING");
+        manager.queueTask(first);
+        manager.queueTask(second);
+        manager.processTasks();
+        manager.shutdown();
+
+        assertEquals("COMPLETED", first.getStatus());
+        assertEquals("COMPLETED", second.getStatus());
+        assertEquals(0, manager.getInFlightCount());
+    }
+
+    @Test
+    public void testShutdownNowAbandonsQueuedTasks() throws InterruptedException {
+        TaskManager single = new TaskManager(1);
+        for (int i = 0; i < 3; i++) single.queueTask(new Task("X-" + i, "MOVE", "A", "B", "PENDING"));
+        single.processTasks();
+        Thread.sleep(200);
+
+        List<Task> abandoned = single.shutdownNow();
+        assertEquals(2, abandoned.size());
+        assertEquals(0, single.getInFlightCount());
+        assertThrows(java.util.concurrent.RejectedExecutionException.class,
+                () -> single.queueTask(new Task("LATE", "MOVE", "A", "B", "PENDING")));
+    }
 }
@@ -24,4 +24,99 @@ public class TaskQueueTest {
         queue.addTask(new Task("T-2002", "DISPENSE", "ZONE C", "PATIENT 2", "PENDING"));
         assertEquals(2, queue.size());
     }
+
+    @Test
+    public void testPriorityClassesThenFifo() {
+        TaskQueue queue = new TaskQueue();
+        queue.addTask(new Task("R-1", "RESTOCK", "A", "B", "PENDING"));
+        queue.addTask(new Task("M-1", "MOVE", "A", "B", "PENDING"));
+        queue.addTask(new Task("P-1", "PICK", "A", "B", "PENDING"));
+        queue.addTask(new Task("P-2", "PICK", "A", "B", "PENDING"));
+        queue.addTask(new Task("U-1", "MOVE", "A", "B", "PENDING"), TaskPriority.URGENT);
+
+        assertEquals("U-1", queue.getNextTask().getId());
+        assertEquals("P-1", queue.getNextTask().getId());
+        assertEquals("P-2", queue.getNextTask().getId());
+        assertEquals("M-1", queue.getNextTask().getId());
+        assertEquals("R-1", queue.getNextTask().getId());
+        assertNull(queue.getNextTask());
+    }
+
+    @Test
+    public void testExpiredTasksGoToHandler() {
+        TaskQueue queue = new TaskQueue();
+        java.util.List<Task> expired = new java.util.ArrayList<>();
+        queue.setExpiryHandler(expired::add);
+        queue.addTask(new Task("OLD", "PICK", "A", "B", "PENDING"), TaskPriority.HIGH, System.currentTimeMillis() - 1);
+        queue.addTask(new Task("NEW", "PICK", "A", "B", "PENDING"), TaskPriority.HIGH, System.currentTimeMillis() + 60_000);
+
+        assertEquals("NEW", queue.getNextTask().getId());
+        assertEquals(1, expired.size());
+        assertEquals("OLD", expired.get(0).getId());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRestoreKeepsPriorityDeadlineAndPosition() throws InterruptedException {
+        TaskQueue queue = new TaskQueue();
+        java.util.List<Task> expired = new java.util.ArrayList<>();
+        queue.setExpiryHandler(expired::add);
+        // RESTOCK would default to the lowest class
+        queue.addTask(new Task("U-1", "RESTOCK", "A", "B", "PENDING"), TaskPriority.URGENT, System.currentTimeMillis() + 50);
+        queue.addTask(new Task("U-2", "RESTOCK", "A", "B", "PENDING"), TaskPriority.URGENT);
+
+        TaskQueue.Entry first = queue.pollEntry();
+        TaskQueue.Entry second = queue.pollEntry();
+        queue.addTask(new Task("U-3", "RESTOCK", "A", "B", "PENDING"), TaskPriority.URGENT);
+        queue.restore(second);
+        queue.restore(first);
+
+        assertEquals(3, queue.size(TaskPriority.URGENT));
+        assertSame(first, queue.pollEntry());
+        assertEquals("U-2", queue.getNextTask().getId());
+
+        queue.restore(first);
+        Thread.sleep(60);
+        assertEquals("U-3", queue.getNextTask().getId());
+        assertEquals(1, expired.size());
+        assertEquals("U-1", expired.get(0).getId());
+    }
+
+    @Test
+    public void testTakeBlocksUntilProducersDeliver() throws InterruptedException {
+        TaskQueue queue = new TaskQueue();
+        int producers = 4;
+        int perProducer = 5_000;
+        java.util.concurrent.atomic.AtomicInteger taken = new java.util.concurrent.atomic.AtomicInteger();
+        Thread[] consumers = new Thread[3];
+        for (int c = 0; c < consumers.length; c++) {
+            consumers[c] = new Thread(() -> {
+                try {
+                    while (queue.take() != null) {
+                        if (taken.incrementAndGet() == producers * perProducer) return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            consumers[c].start();
+        }
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.addTask(new Task("T" + id + "-" + i, i % 2 == 0 ? "PICK" : "MOVE", "A", "B", "PENDING"));
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread t : threads) t.join();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (taken.get() < producers * perProducer && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        for (Thread c : consumers) c.interrupt();
+
+        assertEquals(producers * perProducer, taken.get());
+        assertTrue(queue.isEmpty());
+    }
 }
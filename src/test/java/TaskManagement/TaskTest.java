@@ -1,5 +1,7 @@
 package TaskManagement;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,4 +22,79 @@ public class TaskTest {
         task.setStatus("IN_PROGRESS");
         assertEquals("IN_PROGRESS", task.getStatus());
     }
+
+    @Test
+    public void testTypesParseLenientlyAndStatusesStrictly() {
+        Task known = new Task("T-003", "pick", "A", "B", "in_progress");
+        assertEquals(TaskType.PICK, known.getTaskType());
+        assertEquals("PICK", known.getType());
+        assertEquals(TaskStatus.IN_PROGRESS, known.getTaskStatus());
+
+        Task custom = new Task("T-004", "INSPECT", "A", "B", "PENDING");
+        assertEquals(TaskType.OTHER, custom.getTaskType());
+        assertEquals("INSPECT", custom.getType());
+
+        // the legacy alias is mapped explicitly; anything else is an error
+        assertEquals(TaskStatus.PENDING, TaskStatus.parse("CREATED"));
+        assertThrows(IllegalArgumentException.class, () -> new Task("T-005", "MOVE", "A", "B", "2025-11-12 10:00:00"));
+        assertThrows(IllegalArgumentException.class, () -> TaskStatus.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> new Task("T-005", "MOVE", "A", "B", "PENDING").setStatus("DONE"));
+    }
+
+    @Test
+    public void testTransitionAndMoveToReportRefusalTheSameWay() {
+        Task task = new Task("T-007", "MOVE", "A", "B", "PENDING");
+        assertFalse(task.transition(TaskStatus.PENDING, TaskStatus.COMPLETED));
+        assertFalse(task.moveTo(TaskStatus.COMPLETED));
+        assertEquals(TaskStatus.PENDING, task.getTaskStatus());
+        assertTrue(task.transition(TaskStatus.PENDING, TaskStatus.IN_PROGRESS));
+        assertFalse(task.transition(TaskStatus.PENDING, TaskStatus.IN_PROGRESS));
+    }
+
+    @Test
+    public void testInvalidTransitionsAreRejected() {
+        Task task = new Task("T-005", "MOVE", "A", "B", "PENDING");
+        assertThrows(IllegalStateException.class, () -> task.setStatus("COMPLETED"));
+        assertTrue(task.start());
+        assertTrue(task.complete());
+        assertFalse(task.fail());
+        assertThrows(IllegalStateException.class, () -> task.setStatus("IN_PROGRESS"));
+        assertEquals("COMPLETED", task.getStatus());
+    }
+
+    @Test
+    public void testCompleteFailRaceHasOneWinner() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            Task task = new Task("T-R" + round, "MOVE", "A", "B", "PENDING");
+            task.start();
+            AtomicInteger winners = new AtomicInteger();
+            CountDownLatch go = new CountDownLatch(1);
+            Thread completer = new Thread(() -> { await(go); if (task.complete()) winners.incrementAndGet(); });
+            Thread failer = new Thread(() -> { await(go); if (task.fail()) winners.incrementAndGet(); });
+            completer.start();
+            failer.start();
+            go.countDown();
+            completer.join();
+            failer.join();
+            assertEquals(1, winners.get());
+            assertTrue(task.getTaskStatus().isFinal());
+        }
+    }
+
+    @Test
+    public void testCreatedAtIsEpochMillis() {
+        long millis = Task.parseTimestamp("2025-11-12 10:00:00", -1);
+        Task task = new Task("T-006", "MOVE", "S1", "S2", "PENDING", millis);
+        assertEquals(millis, task.getCreatedAtMillis());
+        assertEquals("2025-11-12 10:00:00", task.getCreatedAt());
+        assertEquals(-1, Task.parseTimestamp("not a date", -1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }